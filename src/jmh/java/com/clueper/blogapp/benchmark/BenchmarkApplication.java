@@ -0,0 +1,76 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.BlogappApplication;
+import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.PostRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the application against an embedded in-memory H2 database for benchmarks
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, String... extraProperties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.flyway.enabled=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        properties.addAll(List.of(extraProperties));
+        return new SpringApplicationBuilder(BlogappApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    // Inserts the given number of posts, each with commentsPerPost comments, and returns their ids
+    static List<Long> seed(ConfigurableApplicationContext context, int posts, int commentsPerPost) {
+        PostRepository postRepository = context.getBean(PostRepository.class);
+        CommentRepository commentRepository = context.getBean(CommentRepository.class);
+
+        List<Long> ids = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            Post post = post(i);
+            post.setCommentCount(commentsPerPost);
+            post = postRepository.save(post);
+            ids.add(post.getId());
+
+            List<Comment> comments = new ArrayList<>(commentsPerPost);
+            for (int j = 0; j < commentsPerPost; j++) {
+                comments.add(comment(post, j));
+            }
+            commentRepository.saveAll(comments);
+        }
+        return ids;
+    }
+
+    static Post post(int i) {
+        Post post = new Post();
+        post.setTitle("Benchmark post " + i);
+        post.setDescription("Description of benchmark post " + i);
+        post.setContent("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(4));
+        return post;
+    }
+
+    static Comment comment(Post post, int j) {
+        Comment comment = new Comment();
+        comment.setName("Commenter " + j);
+        comment.setEmail("commenter" + j + "@example.com");
+        comment.setBody("Comment number " + j + " on " + post.getTitle());
+        comment.setPost(post);
+        return comment;
+    }
+}
@@ -0,0 +1,70 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.payload.CommentBatchResponse;
+import com.clueper.blogapp.payload.CommentDto;
+import com.clueper.blogapp.service.CommentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time to ingest a burst of comments one request at a time versus through the batch endpoint's service call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentIngestBenchmark {
+
+    @Param({"100", "1000"})
+    private int comments;
+
+    private ConfigurableApplicationContext context;
+    private CommentService commentService;
+    private Long postId;
+    private List<CommentDto> burst;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("ingest");
+        postId = BenchmarkApplication.seed(context, 1, 0).get(0);
+        commentService = context.getBean(CommentService.class);
+
+        burst = new ArrayList<>(comments);
+        for (int i = 0; i < comments; i++) {
+            burst.add(new CommentDto(null, "Commenter " + i, "commenter" + i + "@example.com", "Burst comment " + i, null, null));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void createCommentOneAtATime(Blackhole blackhole) {
+        for (CommentDto commentDto : burst) {
+            blackhole.consume(commentService.createComment(commentDto, postId));
+        }
+    }
+
+    @Benchmark
+    public CommentBatchResponse createCommentsBatch() {
+        return commentService.createComments(burst, postId);
+    }
+}
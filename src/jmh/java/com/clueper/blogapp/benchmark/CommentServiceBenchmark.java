@@ -0,0 +1,55 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.payload.CommentCursorResponse;
+import com.clueper.blogapp.service.CommentService;
+import com.clueper.blogapp.utils.AppConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// Latency of the first page of CommentServiceImpl.getCommentsByPostId against H2, by comments on the post;
+// with keyset paging it should stay flat as the post grows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int commentsPerPost;
+
+    private ConfigurableApplicationContext context;
+    private CommentService commentService;
+    private Long postId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("comments");
+        postId = BenchmarkApplication.seed(context, 1, commentsPerPost).get(0);
+        commentService = context.getBean(CommentService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CommentCursorResponse getCommentsByPostId() {
+        return commentService.getCommentsByPostId(postId, "", Integer.parseInt(AppConstants.DEFAULT_COMMENT_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,107 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.repository.PostContentRepository;
+import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.service.PostService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Reading one large post, with the DTO cache off so every call goes to the database: the JSON post as
+// GET /api/posts/{id} builds it, the streamed text of GET /api/posts/{id}/content, and loading the post
+// entity without touching its content. Setup prints the UTF-8 size of the content and the compressed size
+// stored and read from the database. Run with -prof gc to compare allocation per request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LargePostBenchmark {
+
+    private static final String[] WORDS = ("the of and to in is that it for on with as was at by an be this which "
+            + "from or have are not but were had they one all their there been has when who more will would no "
+            + "query index latency throughput cache memory thread lock buffer page disk network request response "
+            + "compression allocation garbage collector heap stack transaction commit rollback schema column").split(" ");
+
+    @Param({"64", "1024"})
+    private int contentKb;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private PostRepository postRepository;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+    private Long postId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("large-post", "spring.cache.type=none");
+        postService = context.getBean(PostService.class);
+        postRepository = context.getBean(PostRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        Post post = BenchmarkApplication.post(0);
+        post.setContent(text(contentKb * 1024));
+        postId = postRepository.save(post).getId();
+
+        byte[] stored = context.getBean(PostContentRepository.class).findCompressedByPostId(postId).orElseThrow();
+        System.out.printf("%n[contentKb=%d] content bytes: utf8=%d stored=%d (%.1fx)%n", contentKb,
+                post.getContent().getBytes(StandardCharsets.UTF_8).length, stored.length,
+                (double) post.getContent().getBytes(StandardCharsets.UTF_8).length / stored.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getPostById() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(postService.getPostById(postId));
+    }
+
+    @Benchmark
+    public long streamContent() throws IOException {
+        try (InputStream content = postService.openPostContent(postId)) {
+            return content.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public String loadPostWithoutContent() {
+        return transactionTemplate.execute(status -> postRepository.findById(postId).orElseThrow().getTitle());
+    }
+
+    // Helper method to build prose-like text of about the given size from a small vocabulary
+    private static String text(int size) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(size + 32);
+        while (text.length() < size) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.payload.PostDto;
+import com.clueper.blogapp.payload.PostResponse;
+import com.clueper.blogapp.payload.PostSummary;
+import com.clueper.blogapp.payload.PostSummaryResponse;
+import com.clueper.blogapp.service.PostService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Full-entity listing (getAllPosts) versus the summary projection (getPostSummaries), each including JSON
+// serialization as the controller would do it. Setup prints, per page, the column bytes each mode reads
+// from the database (UTF-8 length of string columns plus 8 bytes per numeric column) and the response size.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingProjectionBenchmark {
+
+    private static final int POSTS = 500;
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    @Param({"0", "10"})
+    private int commentsPerPost;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        context = BenchmarkApplication.start("listing");
+        BenchmarkApplication.seed(context, POSTS, commentsPerPost);
+        postService = context.getBean(PostService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        PostResponse posts = postService.getAllPosts(0, pageSize, "id", "asc");
+        PostSummaryResponse summaries = postService.getPostSummaries(0, pageSize, "id", "asc");
+        System.out.printf("%n[pageSize=%d, commentsPerPost=%d] database column bytes: full=%d summary=%d; response bytes: full=%d summary=%d%n",
+                pageSize, commentsPerPost, columnBytes(posts), columnBytes(summaries),
+                objectMapper.writeValueAsBytes(posts).length, objectMapper.writeValueAsBytes(summaries).length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] fullListing() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(postService.getAllPosts(0, pageSize, "id", "asc"));
+    }
+
+    @Benchmark
+    public byte[] summaryListing() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(postService.getPostSummaries(0, pageSize, "id", "asc"));
+    }
+
+    // id, title, description, content, comment_count and version of each post, plus the previewed comments
+    private static long columnBytes(PostResponse response) {
+        long bytes = 0;
+        for (PostDto post : response.getContent()) {
+            bytes += 3 * Long.BYTES + utf8(post.getTitle()) + utf8(post.getDescription()) + utf8(post.getContent());
+            bytes += post.getComments().stream()
+                    .mapToLong(comment -> 3 * Long.BYTES + utf8(comment.getName()) + utf8(comment.getEmail()) + utf8(comment.getBody()))
+                    .sum();
+        }
+        return bytes;
+    }
+
+    // id, title, description and comment_count of each post
+    private static long columnBytes(PostSummaryResponse response) {
+        long bytes = 0;
+        for (PostSummary summary : response.getContent()) {
+            bytes += 2 * Long.BYTES + utf8(summary.getTitle()) + utf8(summary.getDescription());
+        }
+        return bytes;
+    }
+
+    private static int utf8(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
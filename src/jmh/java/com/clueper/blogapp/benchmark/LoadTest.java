@@ -0,0 +1,130 @@
+package com.clueper.blogapp.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Closed-loop HTTP load generator for comparing the default platform-thread mode with the virtual-threads profile.
+// Start the application in one mode, e.g.
+//   mvn spring-boot:run                                                    (platform threads)
+//   mvn -Pjava21 spring-boot:run -Dspring-boot.run.profiles=virtual-threads (virtual threads, Java 21)
+// then run: mvn -Pbenchmark -DskipTests test-compile exec:exec@load-test -Dload.args="http://localhost:8080 200 30 /api/posts/1"
+// Arguments are base URL, concurrent clients, duration in seconds and one or more request paths (used round-robin).
+// Leave the rate limiter off (blogapp.rate-limit.enabled, the default): every client here comes from one address
+// and hits one key, so it would answer 429 to everything above the read budget and hide the difference between modes.
+// Slow-database episodes can be reproduced by putting a latency proxy such as toxiproxy between the app and MySQL.
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: LoadTest <baseUrl> <concurrency> <seconds> <path> [<path>...]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int concurrency = Integer.parseInt(args[1]);
+        long durationNanos = Duration.ofSeconds(Long.parseLong(args[2])).toNanos();
+        List<URI> targets = Arrays.stream(args, 3, args.length).map(path -> URI.create(baseUrl + path)).toList();
+
+        // The client threads block in send(), so the HttpClient keeps its own default executor to complete
+        // responses on; sharing this pool with it would leave no thread free and hang every request
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        List<Future<ClientResult>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            int offset = i;
+            futures.add(clients.submit(() -> run(httpClient, targets, offset, deadline)));
+        }
+
+        ClientResult total = new ClientResult();
+        for (Future<ClientResult> future : futures) {
+            total.add(future.get());
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        clients.shutdownNow();
+
+        long[] latencies = Arrays.copyOf(total.latencies, total.count);
+        Arrays.sort(latencies);
+        System.out.printf("requests=%d errors=%d elapsed=%.1fs throughput=%.1f req/s%n",
+                total.count, total.errors, elapsedSeconds, total.count / elapsedSeconds);
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        System.out.println("status codes: " + total.statuses);
+    }
+
+    private static ClientResult run(HttpClient httpClient, List<URI> targets, int offset, long deadline) {
+        ClientResult result = new ClientResult();
+        int next = offset;
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = HttpRequest.newBuilder(targets.get(next++ % targets.size()))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long begin = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                result.record(System.nanoTime() - begin, response.statusCode());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                result.record(System.nanoTime() - begin, -1);
+            }
+        }
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    // Latencies and status counts collected by one client thread
+    private static final class ClientResult {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+        void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            statuses.merge(status, 1, Integer::sum);
+            if (status < 200 || status >= 400) {
+                errors++;
+            }
+        }
+
+        void add(ClientResult other) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length, count + other.count));
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+            other.statuses.forEach((status, n) -> statuses.merge(status, n, Integer::sum));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.mapper.CommentMapper;
+import com.clueper.blogapp.mapper.PostMapper;
+import com.clueper.blogapp.payload.CommentDto;
+import com.clueper.blogapp.payload.PostDto;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Compares the hand-written mappers with the reflective ModelMapper path they replaced.
+// Run with -Djmh.args="MappingBenchmark -prof gc" to also report allocation per call.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"0", "10", "100"})
+    private int commentCount;
+
+    private ModelMapper modelMapper;
+    private PostMapper postMapper;
+    private CommentMapper commentMapper;
+
+    private Post post;
+    private Comment comment;
+    private PostDto postDto;
+    private CommentDto commentDto;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        commentMapper = new CommentMapper();
+        postMapper = new PostMapper(commentMapper);
+
+        post = new Post();
+        post.setId(1L);
+        post.setTitle("Benchmark post");
+        post.setDescription("A post used by the mapping benchmark");
+        post.setContent("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(20));
+        for (long i = 0; i < commentCount; i++) {
+            Comment postComment = new Comment();
+            postComment.setId(i);
+            postComment.setName("name " + i);
+            postComment.setEmail("user" + i + "@example.com");
+            postComment.setBody("comment body " + i);
+            postComment.setPost(post);
+            post.getComments().add(postComment);
+        }
+
+        comment = new Comment(1L, "name", "user@example.com", "comment body", 0L, post);
+        postDto = postMapper.toDto(post, post.getComments());
+        commentDto = commentMapper.toDto(comment, post.getTitle());
+    }
+
+    @Benchmark
+    public PostDto modelMapperPostToDto() {
+        return modelMapper.map(post, PostDto.class);
+    }
+
+    @Benchmark
+    public PostDto postMapperToDto() {
+        return postMapper.toDto(post, post.getComments());
+    }
+
+    @Benchmark
+    public Post modelMapperPostToEntity() {
+        return modelMapper.map(postDto, Post.class);
+    }
+
+    @Benchmark
+    public Post postMapperToEntity() {
+        return postMapper.toEntity(postDto);
+    }
+
+    @Benchmark
+    public CommentDto modelMapperCommentToDto() {
+        CommentDto dto = modelMapper.map(comment, CommentDto.class);
+        dto.setPostTitle(comment.getPost().getTitle());
+        return dto;
+    }
+
+    @Benchmark
+    public CommentDto commentMapperToDto() {
+        return commentMapper.toDto(comment, comment.getPost().getTitle());
+    }
+
+    @Benchmark
+    public Comment modelMapperCommentToEntity() {
+        return modelMapper.map(commentDto, Comment.class);
+    }
+
+    @Benchmark
+    public Comment commentMapperToEntity() {
+        return commentMapper.toEntity(commentDto);
+    }
+}
@@ -0,0 +1,84 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.service.PostService;
+import com.clueper.blogapp.service.impl.PostPurger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time to delete one post by the number of comments it has: the set-based deletePost and the chunked
+// purge against the old entity cascade (load the post, load every comment, one DELETE per comment).
+// Each invocation deletes a freshly seeded post. Run with -prof gc to compare allocation per delete,
+// which stays flat for the set-based paths and grows with the comment count for the cascade.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PostDeletionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int commentsPerPost;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private PostPurger postPurger;
+    private PostRepository postRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long postId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("deletion");
+        postService = context.getBean(PostService.class);
+        postPurger = context.getBean(PostPurger.class);
+        postRepository = context.getBean(PostRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void seedPost() {
+        postId = BenchmarkApplication.seed(context, 1, commentsPerPost).get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deletePost() {
+        postService.deletePost(postId);
+    }
+
+    @Benchmark
+    public int purge() {
+        return postPurger.purge(List.of(postId));
+    }
+
+    @Benchmark
+    public void entityCascade() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Post post = postRepository.findById(postId).orElseThrow();
+            postRepository.delete(post);
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.payload.PostCursorResponse;
+import com.clueper.blogapp.payload.PostResponse;
+import com.clueper.blogapp.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// Listing latency for PostServiceImpl against H2, by page size and comments per post
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostServiceBenchmark {
+
+    private static final int POSTS = 500;
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    @Param({"0", "10", "50"})
+    private int commentsPerPost;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private int lastPage;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("posts");
+        BenchmarkApplication.seed(context, POSTS, commentsPerPost);
+        postService = context.getBean(PostService.class);
+        lastPage = POSTS / pageSize - 1;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PostResponse getAllPostsFirstPage() {
+        return postService.getAllPosts(0, pageSize, "id", "asc");
+    }
+
+    @Benchmark
+    public PostResponse getAllPostsLastPage() {
+        return postService.getAllPosts(lastPage, pageSize, "id", "asc");
+    }
+
+    @Benchmark
+    public PostCursorResponse getAllPostsAfterFirstPage() {
+        return postService.getAllPostsAfter("", pageSize, "id", "asc");
+    }
+}
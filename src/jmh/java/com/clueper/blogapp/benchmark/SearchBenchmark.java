@@ -0,0 +1,70 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.payload.PostSearchResponse;
+import com.clueper.blogapp.search.PostSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Query latency of the in-memory post index over a synthetic corpus with a skewed vocabulary
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+
+    @Param({"10000", "100000"})
+    private int posts;
+
+    private PostSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new PostSearchIndex();
+        for (long id = 1; id <= posts; id++) {
+            index.index(id, words(random, 6), words(random, 20), words(random, 40));
+        }
+    }
+
+    @Benchmark
+    public PostSearchResponse rareTerm() {
+        return index.search("w19999", 0, 10);
+    }
+
+    @Benchmark
+    public PostSearchResponse commonAndRareTerms() {
+        return index.search("w1 w250 w5000", 0, 10);
+    }
+
+    @Benchmark
+    public PostSearchResponse updateAndSearch() {
+        index.index(1L, "w1 w2", "w3", "w4 w5");
+        return index.search("w2", 0, 10);
+    }
+
+    // Zipf-like word picks, so a few terms are in most posts and most terms are rare
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int word = (int) Math.pow(VOCABULARY, random.nextDouble()) - 1;
+            text.append('w').append(word).append(' ');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.mapper.CommentMapper;
+import com.clueper.blogapp.mapper.PostMapper;
+import com.clueper.blogapp.payload.PostDto;
+import com.clueper.blogapp.payload.PostResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization cost of a PostResponse page, using the same defaults as the web layer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    @Param({"0", "10", "50"})
+    private int commentsPerPost;
+
+    private ObjectMapper objectMapper;
+    private PostResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        PostMapper postMapper = new PostMapper(new CommentMapper());
+
+        List<PostDto> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Post post = BenchmarkApplication.post(i);
+            post.setId((long) i);
+            for (int j = 0; j < commentsPerPost; j++) {
+                Comment comment = BenchmarkApplication.comment(post, j);
+                comment.setId((long) i * commentsPerPost + j);
+                post.getComments().add(comment);
+            }
+            content.add(postMapper.toDto(post, post.getComments()));
+        }
+
+        response = new PostResponse();
+        response.setContent(content);
+        response.setPageSize(pageSize);
+        response.setNumberOfElements(pageSize);
+        response.setTotalElements(10_000);
+        response.setTotalPages(10_000 / pageSize);
+        response.setFirstPage(true);
+        response.setHasNext(true);
+        response.setHasContent(true);
+    }
+
+    @Benchmark
+    public byte[] serializePostResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
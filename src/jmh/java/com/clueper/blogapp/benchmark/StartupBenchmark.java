@@ -0,0 +1,184 @@
+package com.clueper.blogapp.benchmark;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Time from launching a fresh JVM to the first successful API response, for each startup mode:
+//   update        the default ddl-auto=update
+//   prod          Flyway migrations and ddl-auto=validate
+//   prod+cds      the same with a class data sharing archive recorded by a training run
+//   prod+aot(+cds) the same with Spring AOT, when target/classes holds AOT output (build with -Paot)
+// Every mode runs against the same H2 file database in target/startup, migrated once up front, so update and
+// validate both see an existing schema. The application classes are jarred because CDS cannot archive classes
+// loaded from directories. Run with:
+//   mvn -Pbenchmark -DskipTests test-compile exec:exec@startup -Dstartup.args="5"
+//   mvn -Paot,benchmark -DskipTests package exec:exec@startup -Dstartup.args="5"   (adds the AOT modes)
+public final class StartupBenchmark {
+
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Path workDir = Paths.get("target", "startup").toAbsolutePath();
+        Files.createDirectories(workDir);
+        Path appJar = jar(Paths.get("target", "classes"), workDir.resolve("blogapp-classes.jar"));
+        String classpath = appJar + java.io.File.pathSeparator + dependencyClasspath();
+        boolean aot = Files.exists(Paths.get("target", "classes", "com", "clueper", "blogapp",
+                "BlogappApplication__ApplicationContextInitializer.class"));
+
+        Launcher launcher = new Launcher(classpath, workDir);
+        // Creates the schema, so every measured mode starts against an existing database
+        launcher.timeToFirstRequest("prepare", List.of(), List.of("--spring.profiles.active=prod"));
+
+        List<Mode> modes = new ArrayList<>();
+        modes.add(new Mode("update", List.of(), List.of()));
+        modes.add(new Mode("prod", List.of(), List.of("--spring.profiles.active=prod")));
+        modes.add(new Mode("prod+cds", List.of(launcher.train("prod", List.of())), List.of("--spring.profiles.active=prod")));
+        if (aot) {
+            List<String> aotFlags = List.of("-Dspring.aot.enabled=true");
+            modes.add(new Mode("prod+aot", aotFlags, List.of("--spring.profiles.active=prod")));
+            List<String> aotCdsFlags = List.of("-Dspring.aot.enabled=true", launcher.train("prod-aot", aotFlags));
+            modes.add(new Mode("prod+aot+cds", aotCdsFlags, List.of("--spring.profiles.active=prod")));
+        } else {
+            System.out.println("No AOT output in target/classes; build with -Paot to include the AOT modes");
+        }
+
+        System.out.printf("%-14s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        for (Mode mode : modes) {
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                millis[i] = launcher.timeToFirstRequest(mode.name(), mode.jvmFlags(), mode.appArgs());
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-14s %10d %10d %10d%n", mode.name(), millis[0], millis[runs / 2], millis[runs - 1]);
+        }
+    }
+
+    // The running JVM's classpath minus its class directories: the dependency jars, H2 included
+    private static String dependencyClasspath() {
+        return Arrays.stream(System.getProperty("java.class.path").split(java.io.File.pathSeparator))
+                .filter(entry -> !Files.isDirectory(Paths.get(entry)))
+                .collect(Collectors.joining(java.io.File.pathSeparator));
+    }
+
+    // Directory entries are written too: component scanning and Flyway list packages through them
+    private static Path jar(Path classesDir, Path target) throws IOException {
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(target));
+             Stream<Path> files = Files.walk(classesDir)) {
+            for (Path file : (Iterable<Path>) files.filter(file -> !file.equals(classesDir))::iterator) {
+                String name = classesDir.relativize(file).toString().replace('\\', '/');
+                boolean directory = Files.isDirectory(file);
+                jar.putNextEntry(new JarEntry(directory ? name + "/" : name));
+                if (!directory) {
+                    Files.copy(file, jar);
+                }
+                jar.closeEntry();
+            }
+        }
+        return target;
+    }
+
+    private record Mode(String name, List<String> jvmFlags, List<String> appArgs) {
+    }
+
+    private static final class Launcher {
+
+        private final String classpath;
+        private final Path workDir;
+        private final String database;
+        private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+        Launcher(String classpath, Path workDir) {
+            this.classpath = classpath;
+            this.workDir = workDir;
+            this.database = "jdbc:h2:file:" + workDir.resolve("blog");
+        }
+
+        // Records the classes loaded up to context refresh and returns the flag that uses the archive
+        String train(String name, List<String> jvmFlags) throws Exception {
+            Path archive = workDir.resolve(name + ".jsa");
+            List<String> flags = new ArrayList<>(jvmFlags);
+            flags.add("-XX:ArchiveClassesAtExit=" + archive);
+            flags.add("-Dspring.context.exit=onRefresh");
+            Process process = start(name + "-training", flags, List.of("--spring.profiles.active=prod"), 0);
+            if (process.waitFor() != 0 || !Files.exists(archive)) {
+                throw new IllegalStateException("CDS training run failed, see " + workDir.resolve(name + "-training.log"));
+            }
+            return "-XX:SharedArchiveFile=" + archive;
+        }
+
+        long timeToFirstRequest(String name, List<String> jvmFlags, List<String> appArgs) throws Exception {
+            int port = freePort();
+            URI uri = URI.create("http://localhost:" + port + "/api/posts/summary?pageSize=1");
+            long start = System.nanoTime();
+            Process process = start(name, jvmFlags, appArgs, port);
+            try {
+                long deadline = start + READY_TIMEOUT.toNanos();
+                while (System.nanoTime() < deadline) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException(name + " exited early, see " + workDir.resolve(name + ".log"));
+                    }
+                    try {
+                        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                        }
+                    } catch (ConnectException e) {
+                        // Not listening yet
+                    }
+                    Thread.sleep(10);
+                }
+                throw new IllegalStateException(name + " did not answer within " + READY_TIMEOUT);
+            } finally {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+
+        private Process start(String name, List<String> jvmFlags, List<String> appArgs, int port) throws IOException {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmFlags);
+            command.addAll(List.of("-Dspring.devtools.restart.enabled=false", "-cp", classpath,
+                    "com.clueper.blogapp.BlogappApplication",
+                    "--server.port=" + port,
+                    "--spring.datasource.url=" + database,
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN"));
+            command.addAll(appArgs);
+            Path log = workDir.resolve(name + ".log");
+            return new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+        }
+
+        private static int freePort() throws IOException {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                return socket.getLocalPort();
+            }
+        }
+    }
+}
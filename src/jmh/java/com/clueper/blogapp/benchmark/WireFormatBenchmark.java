@@ -0,0 +1,136 @@
+package com.clueper.blogapp.benchmark;
+
+import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.mapper.CommentMapper;
+import com.clueper.blogapp.mapper.PostMapper;
+import com.clueper.blogapp.payload.PostDto;
+import com.clueper.blogapp.payload.PostResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// CPU cost of writing and reading a PostResponse page as JSON, CBOR and Smile, and of gzipping the JSON
+// as server.compression would. Setup prints the wire size of each format, raw and gzipped.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    @Param({"0", "10"})
+    private int commentsPerPost;
+
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+    private PostResponse response;
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+    private byte[] smileBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        json = Jackson2ObjectMapperBuilder.json().build();
+        cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+
+        PostMapper postMapper = new PostMapper(new CommentMapper());
+        List<PostDto> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Post post = BenchmarkApplication.post(i);
+            post.setId((long) i);
+            post.setVersion(0L);
+            post.setCommentCount(commentsPerPost);
+            for (int j = 0; j < commentsPerPost; j++) {
+                Comment comment = BenchmarkApplication.comment(post, j);
+                comment.setId((long) i * commentsPerPost + j);
+                post.getComments().add(comment);
+            }
+            content.add(postMapper.toDto(post, post.getComments()));
+        }
+        response = new PostResponse();
+        response.setContent(content);
+        response.setPageSize(pageSize);
+        response.setNumberOfElements(pageSize);
+        response.setTotalElements(10_000);
+        response.setTotalPages(10_000 / pageSize);
+        response.setFirstPage(true);
+        response.setHasNext(true);
+        response.setHasContent(true);
+
+        jsonBytes = json.writeValueAsBytes(response);
+        cborBytes = cbor.writeValueAsBytes(response);
+        smileBytes = smile.writeValueAsBytes(response);
+        System.out.printf("%n[pageSize=%d, commentsPerPost=%d] bytes raw/gzip: json=%d/%d cbor=%d/%d smile=%d/%d%n",
+                pageSize, commentsPerPost, jsonBytes.length, gzip(jsonBytes).length, cborBytes.length, gzip(cborBytes).length,
+                smileBytes.length, gzip(smileBytes).length);
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws IOException {
+        return json.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeJsonGzip() throws IOException {
+        return gzip(json.writeValueAsBytes(response));
+    }
+
+    @Benchmark
+    public byte[] writeCbor() throws IOException {
+        return cbor.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeSmile() throws IOException {
+        return smile.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public PostResponse readJson() throws IOException {
+        return json.readValue(jsonBytes, PostResponse.class);
+    }
+
+    @Benchmark
+    public PostResponse readCbor() throws IOException {
+        return cbor.readValue(cborBytes, PostResponse.class);
+    }
+
+    @Benchmark
+    public PostResponse readSmile() throws IOException {
+        return smile.readValue(smileBytes, PostResponse.class);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+package com.clueper.blogapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Replaces the single auto-configured datasource with primary/replica routing when replica URLs are configured
+@Configuration
+@ConditionalOnProperty(name = "blogapp.datasource.replica.urls")
+public class DataSourceRoutingConfig {
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    // The primary pool, configured from the usual spring.datasource.* properties
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                       @Value("${blogapp.datasource.replica.urls}") List<String> urls,
+                                                       @Value("${blogapp.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                                       @Value("${blogapp.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                                       @Value("${blogapp.datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+                                                       @Value("${blogapp.datasource.replica.connection-timeout:PT2S}") Duration connectionTimeout,
+                                                       MeterRegistry meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            // Fail over to the primary quickly instead of waiting on an unreachable replica
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            // Do not fail startup because a replica is down; the health check ejects it instead
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicas);
+        Gauge.builder("blogapp.datasource.replicas.healthy", routingDataSource, ReadWriteRoutingDataSource::getHealthyReplicaCount)
+                .description("Replicas currently receiving read-only transactions")
+                .register(meterRegistry);
+        return routingDataSource;
+    }
+
+    // What JPA and everything else use: picks the target only once a statement actually needs a connection
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(initialDelayString = "${blogapp.datasource.replica.health-check-interval:PT5S}",
+            fixedDelayString = "${blogapp.datasource.replica.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        routingDataSource.checkReplicas();
+    }
+}
@@ -0,0 +1,21 @@
+package com.clueper.blogapp.config;
+
+import com.clueper.blogapp.metrics.RequestStatisticsHibernateHooks;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    // Counts statements and entity loads per request for RequestMetricsInterceptor
+    @Bean
+    public HibernatePropertiesCustomizer requestStatisticsCustomizer() {
+        RequestStatisticsHibernateHooks hooks = new RequestStatisticsHibernateHooks();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, hooks);
+            properties.put(AvailableSettings.INTERCEPTOR, hooks);
+        };
+    }
+}
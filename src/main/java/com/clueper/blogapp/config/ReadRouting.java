@@ -0,0 +1,23 @@
+package com.clueper.blogapp.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Tells shared caches whether what the current thread just read can be trusted to be current. Reads routed
+// to a replica can lag the primary, and caching them would serve that lag to every client, including one
+// that is pinned to the primary, for as long as the entry lives.
+@Component
+public class ReadRouting {
+
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    public ReadRouting(ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    // True when this thread's read-only transactions may be served by a replica
+    public boolean readsMayBeStale() {
+        ReadWriteRoutingDataSource routing = routingDataSource.getIfAvailable();
+        return routing != null && routing.routesReadsToReplica();
+    }
+}
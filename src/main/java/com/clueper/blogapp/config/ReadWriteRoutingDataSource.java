@@ -0,0 +1,128 @@
+package com.clueper.blogapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read-only transactions to a healthy replica (round robin) and everything else to the primary.
+// Must sit behind a LazyConnectionDataSourceProxy, so the connection is only picked once the
+// transaction's read-only flag is known. Replicas that fail to hand out connections are ejected
+// until the next successful health check.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final Map<String, DataSource> replicas = new HashMap<>();
+    private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            this.replicas.put(key, replicas.get(i));
+            healthy.put(key, true);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // Routes the current thread's reads to the primary, e.g. right after the client wrote something
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    // True unless this thread is pinned to the primary or every replica is ejected
+    public boolean routesReadsToReplica() {
+        return PINNED_TO_PRIMARY.get() == null && getHealthyReplicaCount() > 0;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PINNED_TO_PRIMARY.get() != null) {
+            return PRIMARY;
+        }
+        for (int attempt = 0; attempt < replicaKeys.size(); attempt++) {
+            String key = replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+            if (healthy.get(key)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    // Falls back to the primary, and ejects the replica, when a replica cannot hand out a connection
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            return replicas.get(key).getConnection();
+        } catch (SQLException e) {
+            eject((String) key, e);
+            return primary.getConnection();
+        }
+    }
+
+    // Re-checks every replica, ejecting the failing ones and restoring the ones that recovered
+    public void checkReplicas() {
+        for (String key : replicaKeys) {
+            try (Connection connection = replicas.get(key).getConnection()) {
+                if (connection.isValid(1)) {
+                    if (!healthy.put(key, true)) {
+                        logger.info("Replica {} is healthy again", key);
+                    }
+                } else {
+                    eject(key, null);
+                }
+            } catch (SQLException e) {
+                eject(key, e);
+            }
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        return (int) healthy.values().stream().filter(Boolean::booleanValue).count();
+    }
+
+    private void eject(String key, SQLException cause) {
+        if (healthy.put(key, false)) {
+            logger.warn("Ejecting replica {} until it passes a health check", key, cause);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
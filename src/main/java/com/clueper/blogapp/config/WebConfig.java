@@ -0,0 +1,41 @@
+package com.clueper.blogapp.config;
+
+import com.clueper.blogapp.metrics.RequestMetricsInterceptor;
+import com.clueper.blogapp.ratelimit.RateLimitInterceptor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RequestMetricsInterceptor requestMetricsInterceptor;
+    private final ObjectProvider<RateLimitInterceptor> rateLimitInterceptor;
+
+    public WebConfig(RequestMetricsInterceptor requestMetricsInterceptor,
+                     ObjectProvider<RateLimitInterceptor> rateLimitInterceptor) {
+        this.requestMetricsInterceptor = requestMetricsInterceptor;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestMetricsInterceptor).addPathPatterns("/api/**");
+        // After the metrics interceptor, so rejected requests still show up in the request metrics
+        rateLimitInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns("/api/**"));
+        // Any /api response can be JSON, CBOR or Smile for the same URL, so caches must key it on Accept as well.
+        // Added before the handler runs, so 304 answers carry it too
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
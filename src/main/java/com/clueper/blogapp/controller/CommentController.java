@@ -1,7 +1,13 @@
 package com.clueper.blogapp.controller;
 
+import com.clueper.blogapp.payload.CommentBatchResponse;
+import com.clueper.blogapp.payload.CommentCursorResponse;
 import com.clueper.blogapp.payload.CommentDto;
 import com.clueper.blogapp.service.CommentService;
+import com.clueper.blogapp.utils.AppConstants;
+import com.clueper.blogapp.utils.ETags;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,12 +32,38 @@ public class CommentController {
         return ResponseEntity.status(201).body(createdComment);
     }
 
-    // Endpoint to get all comments for a specific post
+    // Endpoint to queue a comment for asynchronous writing; 202 means accepted, not yet stored
+    @PostMapping("/async")
+    public ResponseEntity<Void> acceptComment(@RequestBody CommentDto commentDto, @PathVariable(value = "postId") Long postId) {
+        commentService.acceptComment(commentDto, postId);
+        return ResponseEntity.accepted().build();
+    }
+
+    // Endpoint to create many comments for a post in one call, with a result per item
+    @PostMapping("/batch")
+    public ResponseEntity<CommentBatchResponse> createComments(@RequestBody List<CommentDto> commentDtos, @PathVariable(value = "postId") Long postId) {
+        CommentBatchResponse response = commentService.createComments(commentDtos, postId);
+        return ResponseEntity.ok(response);
+    }
+
+    // Endpoint to page through the comments of a post: pass no cursor for the first page, then the returned nextCursor.
+    // If-None-Match is answered from the post version alone
     @GetMapping
-    public ResponseEntity<List<CommentDto>> getCommentsByPostId(@PathVariable(value = "postId") Long postId) {
-        // Call the service to get comments by post ID and return the response
-        List<CommentDto> comments = commentService.getCommentsByPostId(postId);
-        return ResponseEntity.ok(comments);
+    public ResponseEntity<CommentCursorResponse> getCommentsByPostId(
+            @PathVariable(value = "postId") Long postId,
+            @RequestParam(value = "after", defaultValue = "", required = false) String after,
+            @RequestParam(value = "pageSize", defaultValue = AppConstants.DEFAULT_COMMENT_PAGE_SIZE, required = false) int pageSize,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // Read the version before the comments, so a concurrent change can only make the ETag older than the list
+        String etag = ETags.of(postId, commentService.getCommentsVersion(postId), accept);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        // Call the service to get a page of comments by post ID and return the response
+        CommentCursorResponse comments = commentService.getCommentsByPostId(postId, after, pageSize);
+        return ResponseEntity.ok().eTag(etag).body(comments);
     }
 
     // Endpoint to get a specific comment by post ID and comment ID
@@ -1,12 +1,28 @@
 package com.clueper.blogapp.controller;
 
+import com.clueper.blogapp.payload.PostBatchResponse;
+import com.clueper.blogapp.payload.PostCursorResponse;
 import com.clueper.blogapp.payload.PostDto;
 import com.clueper.blogapp.payload.PostResponse;
+import com.clueper.blogapp.payload.PostSearchResponse;
+import com.clueper.blogapp.payload.PostSummaryResponse;
+import com.clueper.blogapp.payload.TrendingPost;
 import com.clueper.blogapp.service.PostService;
 import com.clueper.blogapp.utils.AppConstants;
+import com.clueper.blogapp.utils.ETags;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -14,9 +30,11 @@ import java.util.List;
 public class PostController {
 
     private PostService postService;
+    private ObjectMapper objectMapper;
 
-    public PostController(PostService postService) {
+    public PostController(PostService postService, ObjectMapper objectMapper) {
         this.postService = postService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -36,16 +54,114 @@ public class PostController {
         return ResponseEntity.ok(response);
     }
 
+    // Summary mode for listing views: id, title, description and comment count only
+    @GetMapping("/summary")
+    public ResponseEntity<PostSummaryResponse> getPostSummaries(
+            @RequestParam(value = "pageNo", defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+            @RequestParam(value = "pageSize", defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
+            @RequestParam(value = "sortBy", defaultValue = AppConstants.DEFAULT_SORT_BY, required = false) String sortBy,
+            @RequestParam(value = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIR, required = false) String sortDir
+            ) {
+        PostSummaryResponse response = postService.getPostSummaries(pageNo, pageSize, sortBy, sortDir);
+        return ResponseEntity.ok(response);
+    }
+
+    // Cursor mode: pass an empty "after" for the first page, then the returned nextCursor
+    @GetMapping(params = "after")
+    public ResponseEntity<PostCursorResponse> getAllPostsAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "pageSize", defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
+            @RequestParam(value = "sortBy", defaultValue = AppConstants.DEFAULT_SORT_BY, required = false) String sortBy,
+            @RequestParam(value = "sortDir", defaultValue = AppConstants.DEFAULT_SORT_DIR, required = false) String sortDir
+            ) {
+        PostCursorResponse response = postService.getAllPostsAfter(after, pageSize, sortBy, sortDir);
+        return ResponseEntity.ok(response);
+    }
+
+    // Fetches many posts by id in one call, e.g. GET /api/posts?ids=3,1,2, keeping the requested order
+    @GetMapping(params = "ids")
+    public ResponseEntity<PostBatchResponse> getPostsByIds(@RequestParam(value = "ids") List<Long> ids) {
+        return ResponseEntity.ok(postService.getPostsByIds(ids));
+    }
+
+    // The most viewed posts of the recent past, highest score first
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingPost>> getTrendingPosts(
+            @RequestParam(value = "size", defaultValue = AppConstants.DEFAULT_TRENDING_SIZE, required = false) int size
+    ) {
+        return ResponseEntity.ok(postService.getTrendingPosts(size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<PostSearchResponse> searchPosts(
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "pageNo", defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+            @RequestParam(value = "pageSize", defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize
+            ) {
+        PostSearchResponse response = postService.searchPosts(query, pageNo, pageSize);
+        return ResponseEntity.ok(response);
+    }
+
+    // Streams every post with its comments as newline-delimited JSON, one post per line
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPosts() {
+        ObjectWriter writer = objectMapper.writerFor(PostDto.class);
+        StreamingResponseBody body = outputStream -> postService.exportPosts(post -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(post));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Answers If-None-Match from the post version alone; the post is only loaded when it changed.
+    // Both answers count as a view.
     @GetMapping("/{id}")
-    public ResponseEntity<PostDto> getPostById(@PathVariable Long id) {
+    public ResponseEntity<PostDto> getPostById(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ifNoneMatch != null) {
+            String etag = ETags.of(id, postService.getPostVersion(id), accept);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                postService.recordView(id);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
         PostDto post = postService.getPostById(id);
-        return ResponseEntity.ok(post);
+        postService.recordView(id);
+        return ResponseEntity.ok().eTag(ETags.of(id, post.getVersion(), accept)).body(post);
+    }
+
+    // Streams just the post's text, decompressing it as it is written, so a very large post is served without
+    // holding it in memory as a String or a JSON document
+    @GetMapping(value = "/{id}/content", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> getPostContent(@PathVariable Long id) {
+        InputStream content = postService.openPostContent(id);
+        StreamingResponseBody body = outputStream -> {
+            try (content) {
+                content.transferTo(outputStream);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(body);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<PostDto> updatePost(@PathVariable Long id, @RequestBody PostDto postDto) {
+    public ResponseEntity<PostDto> updatePost(@PathVariable Long id, @RequestBody PostDto postDto,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         PostDto updatedPost = postService.updatePost(id, postDto);
-        return ResponseEntity.ok(updatedPost);
+        return ResponseEntity.ok().eTag(ETags.of(id, updatedPost.getVersion(), accept)).body(updatedPost);
+    }
+
+    // Deletes many posts, e.g. for a moderation sweep; runs in the background, so it answers 202 right away
+    @PostMapping("/purge")
+    public ResponseEntity<String> purgePosts(@RequestBody List<Long> ids) {
+        postService.purgePosts(ids);
+        return ResponseEntity.accepted().body(AppConstants.POSTS_PURGE_ACCEPTED);
     }
 
     @DeleteMapping("/{id}")
@@ -1,6 +1,7 @@
 package com.clueper.blogapp.entity;
 
 
+import com.clueper.blogapp.utils.AppConstants;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -10,17 +11,25 @@ import lombok.*;
 @AllArgsConstructor
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {@Index(name = "idx_comments_post_id_id", columnList = "post_id, id")})
 public class Comment {
 
+    // Pooled sequence ids let Hibernate batch comment INSERTs, which IDENTITY ids rule out;
+    // CommentSequenceSeeder keeps the sequence ahead of ids assigned before it existed
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comments_seq",
+            allocationSize = AppConstants.COMMENT_ID_ALLOCATION_SIZE)
     private Long id;
 
     private String name;
     private String email;
     private String body;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id", nullable = false)
     private Post post;
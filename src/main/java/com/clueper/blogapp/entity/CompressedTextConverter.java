@@ -0,0 +1,20 @@
+package com.clueper.blogapp.entity;
+
+import com.clueper.blogapp.utils.CompressedText;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores text attributes compressed; see CompressedText for the stored layout
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        return text == null ? null : CompressedText.compress(text);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        return data == null ? null : CompressedText.decompress(data);
+    }
+}
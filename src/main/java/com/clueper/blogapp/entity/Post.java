@@ -3,8 +3,10 @@ package com.clueper.blogapp.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 
@@ -13,7 +15,8 @@ import java.util.Set;
 @Entity
 @Getter
 @Setter
-@Table(name = "posts", uniqueConstraints = {@UniqueConstraint(columnNames = {"title"})})
+@Table(name = "posts", uniqueConstraints = {@UniqueConstraint(columnNames = {"title"})},
+        indexes = {@Index(name = "idx_posts_comment_count_id", columnList = "comment_count, id")})
 public class Post {
 
     @Id
@@ -26,9 +29,41 @@ public class Post {
     @Column(nullable = false)
     private String description;
 
+    // Loaded on first access, or up front by the queries that map posts to DTOs; see getContent()
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true, optional = false)
+    @JoinColumn(name = "content_id", nullable = false)
+    private PostContent postContent;
+
+    // Denormalized number of comments, kept up to date by atomic UPDATEs on every comment write
+    // and repaired by CommentCountReconciler if it ever drifts
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+
+    // Written only in batches by PostViewCounter, so it lags the real number of views by up to one flush.
+    // Never inserted or updated through the entity, so saving a post cannot overwrite a flush with a stale count.
+    @ColumnDefault("0")
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false)
+    private long viewCount;
+
+    // Bumped by Hibernate on every update of the post and explicitly on every comment change,
+    // so it identifies the current state of the post and its comments (ETags, optimistic locking)
+    @Version
     @Column(nullable = false)
-    private String content;
+    private Long version;
 
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<Comment> comments = new HashSet<>();
+
+    // The post's text; reading it initializes the content association if it is still a proxy
+    public String getContent() {
+        return postContent == null ? null : postContent.getText();
+    }
+
+    // Changed text goes into a new content row rather than updating the old one: the new content_id makes the
+    // post itself dirty, so its version is bumped like for any other field, and orphan removal drops the old row
+    public void setContent(String content) {
+        if (postContent == null || !Objects.equals(postContent.getText(), content)) {
+            postContent = new PostContent(null, content);
+        }
+    }
 }
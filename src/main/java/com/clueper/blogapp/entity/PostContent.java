@@ -0,0 +1,28 @@
+package com.clueper.blogapp.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+
+// The body of a post, kept in its own table so loading a post for anything but its content
+// (listings, updates of other fields, comment writes) never reads the large object
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Getter
+@Setter
+@BatchSize(size = 100)
+@Table(name = "post_contents")
+public class PostContent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Compressed on write and decompressed on load, so it is only ever a String on the Java side
+    @Lob
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "data", nullable = false)
+    private String text;
+}
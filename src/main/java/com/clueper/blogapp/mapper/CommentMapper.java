@@ -0,0 +1,32 @@
+package com.clueper.blogapp.mapper;
+
+import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.payload.CommentDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CommentMapper {
+
+    // Converts a Comment entity to CommentDto with an already known post title, without touching the post.
+    // Callers resolve titles once per post (or per query); reading comment.getPost().getTitle() here would
+    // initialize the lazy post and cost a SELECT per distinct post.
+    public CommentDto toDto(Comment comment, String postTitle) {
+        CommentDto dto = new CommentDto();
+        dto.setId(comment.getId());
+        dto.setName(comment.getName());
+        dto.setEmail(comment.getEmail());
+        dto.setBody(comment.getBody());
+        dto.setVersion(comment.getVersion());
+        dto.setPostTitle(postTitle);
+        return dto;
+    }
+
+    // Converts a CommentDto to a new Comment entity; the id and post are left for the caller to set
+    public Comment toEntity(CommentDto commentDto) {
+        Comment comment = new Comment();
+        comment.setName(commentDto.getName());
+        comment.setEmail(commentDto.getEmail());
+        comment.setBody(commentDto.getBody());
+        return comment;
+    }
+}
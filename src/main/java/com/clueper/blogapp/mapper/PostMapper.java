@@ -0,0 +1,53 @@
+package com.clueper.blogapp.mapper;
+
+import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.payload.CommentDto;
+import com.clueper.blogapp.payload.PostDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class PostMapper {
+
+    private final CommentMapper commentMapper;
+
+    public PostMapper(CommentMapper commentMapper) {
+        this.commentMapper = commentMapper;
+    }
+
+    // Converts a Post entity to PostDto without mapping (or loading) its comments
+    public PostDto toDto(Post post) {
+        PostDto postDto = new PostDto();
+        postDto.setId(post.getId());
+        postDto.setTitle(post.getTitle());
+        postDto.setDescription(post.getDescription());
+        postDto.setContent(post.getContent());
+        postDto.setCommentCount(post.getCommentCount());
+        postDto.setVersion(post.getVersion());
+        return postDto;
+    }
+
+    // Converts a Post entity to PostDto including the given comments, which may be only a preview of them
+    public PostDto toDto(Post post, Collection<Comment> comments) {
+        PostDto postDto = toDto(post);
+        List<CommentDto> commentDtos = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            commentDtos.add(commentMapper.toDto(comment, post.getTitle()));
+        }
+        postDto.setComments(commentDtos);
+        return postDto;
+    }
+
+    // Converts a PostDto to a new Post entity; the id and comments are not copied
+    public Post toEntity(PostDto postDto) {
+        Post post = new Post();
+        post.setTitle(postDto.getTitle());
+        post.setDescription(postDto.getDescription());
+        post.setContent(postDto.getContent());
+        return post;
+    }
+}
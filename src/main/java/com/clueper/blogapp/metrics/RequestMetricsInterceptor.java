@@ -0,0 +1,92 @@
+package com.clueper.blogapp.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Records how many SQL statements and entity loads each request issued, per endpoint,
+// and flags requests above the configured query-count threshold. Statements are counted on the threads
+// handling the request: SQL run by an async handler's own worker thread (the body of a StreamingResponseBody,
+// such as the NDJSON export) and by background jobs (the batched view count flush) is not counted.
+@Component
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestMetricsInterceptor.class);
+    private static final String STATISTICS_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".statistics";
+
+    private final MeterRegistry meterRegistry;
+    private final int queryCountThreshold;
+
+    public RequestMetricsInterceptor(MeterRegistry meterRegistry,
+                                     @Value("${blogapp.metrics.query-count-threshold:20}") int queryCountThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.queryCountThreshold = queryCountThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // An async dispatch carries on with what the first dispatch counted before the handler went async
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+                && request.getAttribute(STATISTICS_ATTRIBUTE) instanceof RequestStatistics statistics) {
+            RequestStatistics.resume(statistics);
+        } else {
+            RequestStatistics.begin();
+        }
+        return true;
+    }
+
+    // Async handlers finish on another thread; hand this thread's counters to the async dispatch, which
+    // records them, and take them off this thread so they do not leak
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestStatistics statistics = RequestStatistics.end();
+        if (statistics != null) {
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestStatistics statistics = RequestStatistics.end();
+        if (statistics == null) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("blogapp.request.sql.statements")
+                .description("SQL statements issued per request")
+                .tags(tags)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("blogapp.request.entities.loaded")
+                .description("Entities loaded per request")
+                .tags(tags)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry)
+                .record(statistics.getEntitiesLoaded());
+
+        if (statistics.getStatements() > queryCountThreshold) {
+            Counter.builder("blogapp.request.sql.threshold.exceeded")
+                    .description("Requests that issued more SQL statements than the configured threshold")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+            logger.warn("{} {} issued {} SQL statements and loaded {} entities (threshold {})",
+                    request.getMethod(), uri, statistics.getStatements(), statistics.getEntitiesLoaded(), queryCountThreshold);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.clueper.blogapp.metrics;
+
+// Counts SQL statements and entity loads issued by the request being handled on the current thread
+public final class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entitiesLoaded;
+
+    private RequestStatistics() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new RequestStatistics());
+    }
+
+    // Continues counting on this thread into statistics an earlier part of the same request handed over
+    public static void resume(RequestStatistics statistics) {
+        CURRENT.set(statistics);
+    }
+
+    // Stops counting on this thread and returns what was counted, or null if nothing was being counted
+    public static RequestStatistics end() {
+        RequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    // Called by the Hibernate hooks, and directly by code that issues SQL through JdbcTemplate, which
+    // bypasses Hibernate's StatementInspector
+    public static void recordStatement() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+        }
+    }
+
+    static void recordEntityLoad() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.entitiesLoaded++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+}
@@ -0,0 +1,21 @@
+package com.clueper.blogapp.metrics;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+// Hibernate hooks feeding RequestStatistics: every prepared SQL statement and every entity hydrated
+public class RequestStatisticsHibernateHooks implements StatementInspector, Interceptor {
+
+    @Override
+    public String inspect(String sql) {
+        RequestStatistics.recordStatement();
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestStatistics.recordEntityLoad();
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package com.clueper.blogapp.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentBatchResponse {
+    private int created;
+    private int rejected;
+    private List<CommentBatchResult> results;
+}
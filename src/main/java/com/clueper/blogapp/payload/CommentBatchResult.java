@@ -0,0 +1,17 @@
+package com.clueper.blogapp.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentBatchResult {
+    public enum Status { CREATED, REJECTED }
+
+    private int index;
+    private Status status;
+    private Long id;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.clueper.blogapp.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentCursorResponse {
+    List<CommentDto> content;
+    int pageSize;
+    int numberOfElements;
+    boolean hasNext;
+    String nextCursor;
+}
@@ -13,5 +13,6 @@ public class CommentDto {
     private String name;
     private String email;
     private String body;
+    private Long version;
     private String postTitle;
 }
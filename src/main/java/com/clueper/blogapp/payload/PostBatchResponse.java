@@ -0,0 +1,15 @@
+package com.clueper.blogapp.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostBatchResponse {
+    List<PostDto> content;
+    List<Long> missingIds;
+}
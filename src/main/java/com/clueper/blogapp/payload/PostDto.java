@@ -4,7 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.Set;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -14,6 +14,9 @@ public class PostDto {
     private String title;
     private String description;
     private String content;
+    private Long version;
 
-    private Set<CommentDto> comments;
+    // Total number of comments, and the first few of them in id order; the rest are paged from the comments endpoint
+    private long commentCount;
+    private List<CommentDto> comments;
 }
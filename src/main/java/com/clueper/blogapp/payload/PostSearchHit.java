@@ -0,0 +1,15 @@
+package com.clueper.blogapp.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSearchHit {
+    private Long id;
+    private String title;
+    private String description;
+    private double score;
+}
@@ -0,0 +1,17 @@
+package com.clueper.blogapp.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSearchResponse {
+    List<PostSearchHit> content;
+    int pageNumber;
+    int pageSize;
+    int totalHits;
+}
@@ -0,0 +1,17 @@
+package com.clueper.blogapp.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Listing view of a post: read straight from the posts table by a constructor-expression query,
+// so neither the content column nor the comments are ever loaded
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSummary {
+    private Long id;
+    private String title;
+    private String description;
+    private long commentCount;
+}
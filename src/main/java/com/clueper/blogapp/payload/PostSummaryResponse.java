@@ -0,0 +1,22 @@
+package com.clueper.blogapp.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSummaryResponse {
+    List<PostSummary> content;
+    int pageNumber;
+    int pageSize;
+    long totalElements;
+    boolean lastPage;
+    int totalPages;
+    int numberOfElements;
+    boolean hasNext;
+    boolean hasPrevious;
+}
@@ -0,0 +1,17 @@
+package com.clueper.blogapp.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingPost {
+    private Long id;
+    private String title;
+    private String description;
+    private long commentCount;
+    // Recent views, each counting half as much per trending half-life that passed since it was recorded
+    private double score;
+}
@@ -0,0 +1,70 @@
+package com.clueper.blogapp.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Per-client rate limits keyed by client address, HTTP method and endpoint pattern. Reads (GET/HEAD) and
+// writes draw from separate budgets so a client flooding writes cannot use up the shared connection pool.
+@Component
+@ConditionalOnProperty(name = "blogapp.rate-limit.enabled", havingValue = "true")
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter readLimiter;
+    private final RateLimiter writeLimiter;
+    private final Counter readRejections;
+    private final Counter writeRejections;
+
+    public RateLimitInterceptor(@Value("${blogapp.rate-limit.read.rate-per-second:50}") double readRate,
+                                @Value("${blogapp.rate-limit.read.burst:100}") int readBurst,
+                                @Value("${blogapp.rate-limit.write.rate-per-second:5}") double writeRate,
+                                @Value("${blogapp.rate-limit.write.burst:20}") int writeBurst,
+                                MeterRegistry meterRegistry) {
+        this.readLimiter = new RateLimiter(readRate, readBurst);
+        this.writeLimiter = new RateLimiter(writeRate, writeBurst);
+        this.readRejections = rejections(meterRegistry, "read");
+        this.writeRejections = rejections(meterRegistry, "write");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String key = request.getRemoteAddr() + ' ' + request.getMethod() + ' ' + (pattern != null ? pattern : request.getRequestURI());
+
+        long waitNanos = (read ? readLimiter : writeLimiter).tryAcquire(key);
+        if (waitNanos == 0) {
+            return true;
+        }
+
+        (read ? readRejections : writeRejections).increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(RateLimiter.retryAfterSeconds(waitNanos)));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded, retry later");
+        return false;
+    }
+
+    // Keeps the key maps from growing with every client ever seen
+    @Scheduled(fixedDelayString = "${blogapp.rate-limit.eviction-interval:PT1M}")
+    public void evictIdle() {
+        readLimiter.evictIdle();
+        writeLimiter.evictIdle();
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String budget) {
+        return Counter.builder("blogapp.ratelimit.rejected")
+                .description("Requests rejected with 429 by the per-client rate limiter")
+                .tag("budget", budget)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.clueper.blogapp.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket implemented as GCRA: each key holds only its "theoretical arrival time" in an AtomicLong,
+// updated with a CAS loop, so checks never lock and the map's own striping keeps keys independent
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final ConcurrentMap<String, AtomicLong> arrivalTimes = new ConcurrentHashMap<>();
+
+    // Allows ratePerSecond requests per second on average, and bursts of up to burst requests
+    public RateLimiter(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstToleranceNanos = intervalNanos * burst;
+    }
+
+    // Takes a token for the key; returns zero if allowed, otherwise how long until a token is available
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        AtomicLong arrivalTime = arrivalTimes.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = arrivalTime.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long allowedAt = next - burstToleranceNanos;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Drops keys whose bucket has refilled completely; they behave exactly like unseen keys
+    public void evictIdle() {
+        long now = System.nanoTime();
+        arrivalTimes.values().removeIf(arrivalTime -> arrivalTime.get() <= now);
+    }
+
+    public int size() {
+        return arrivalTimes.size();
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + Duration.ofSeconds(1).toNanos() - 1) / Duration.ofSeconds(1).toNanos());
+    }
+}
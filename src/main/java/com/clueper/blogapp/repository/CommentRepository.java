@@ -1,12 +1,69 @@
 package com.clueper.blogapp.repository;
 
 import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.utils.AppConstants;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     // Custom query methods can be defined here if needed
     List<Comment> findByPostId(Long postId);
 
+    // One page of a post's comments in id order, read from the (post_id, id) index
+    List<Comment> findByPostIdAndIdGreaterThanOrderById(Long postId, Long id, Limit limit);
+
+    // The first previewSize comments of each given post, in (post id, id) order, in one statement
+    @Query(nativeQuery = true, value = "select t.id, t.name, t.email, t.body, t.version, t.post_id from ("
+            + "select c.*, row_number() over (partition by c.post_id order by c.id) as rn "
+            + "from comments c where c.post_id in (:postIds)) t "
+            + "where t.rn <= :previewSize order by t.post_id, t.id")
+    List<Comment> findPreviewsByPostIdIn(@Param("postIds") Collection<Long> postIds, @Param("previewSize") int previewSize);
+
+    // Forward-only stream over all comments grouped by post, for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Comment c order by c.post.id, c.id")
+    Stream<Comment> streamAllOrderByPostId();
+
+    // Loads a comment and its post's title, only when the comment belongs to that post; the post itself
+    // (content included) stays an uninitialized reference
+    @Query("select c as comment, p.title as postTitle from Comment c join c.post p where p.id = :postId and c.id = :commentId")
+    Optional<CommentWithPostTitle> findByPostIdAndId(@Param("postId") Long postId, @Param("commentId") Long commentId);
+
+    // Deletes a comment only when it belongs to the post; returns the number of rows deleted
+    @Modifying
+    @Query("delete from Comment c where c.post.id = :postId and c.id = :commentId")
+    int deleteByPostIdAndId(@Param("postId") Long postId, @Param("commentId") Long commentId);
+
+    // Deletes every comment of the given posts in one statement, without loading them
+    @Modifying
+    @Query("delete from Comment c where c.post.id in :postIds")
+    int deleteByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    // Up to limit ids of the given posts' comments, so large purges can delete in bounded chunks
+    @Query("select c.id from Comment c where c.post.id in :postIds")
+    List<Long> findIdsByPostIdIn(@Param("postIds") Collection<Long> postIds, Limit limit);
+
+    @Modifying
+    @Query("delete from Comment c where c.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface CommentWithPostTitle {
+        Comment getComment();
+
+        String getPostTitle();
+    }
 }
@@ -0,0 +1,17 @@
+package com.clueper.blogapp.repository;
+
+import com.clueper.blogapp.entity.PostContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface PostContentRepository extends JpaRepository<PostContent, Long>, PostContentRepositoryCustom {
+
+    // Deletes the given contents without loading them; the posts pointing at them must be deleted first
+    @Modifying
+    @Query("delete from PostContent c where c.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
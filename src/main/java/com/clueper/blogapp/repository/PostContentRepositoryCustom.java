@@ -0,0 +1,9 @@
+package com.clueper.blogapp.repository;
+
+import java.util.Optional;
+
+public interface PostContentRepositoryCustom {
+
+    // The post's content as stored, still compressed, for streaming it without building the whole String
+    Optional<byte[]> findCompressedByPostId(Long postId);
+}
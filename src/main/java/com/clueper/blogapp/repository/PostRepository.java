@@ -1,9 +1,119 @@
 package com.clueper.blogapp.repository;
 
 import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.payload.PostSummary;
+import com.clueper.blogapp.utils.AppConstants;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
     // Custom query methods can be defined here if needed
 
+    // Pages over post ids only, so the page query never joins the comments collection
+    @Query(value = "select p.id from Post p", countQuery = "select count(p) from Post p")
+    Page<Long> findPageOfIds(Pageable pageable);
+
+    // Pages over post summaries, selecting only the listing columns
+    @Query(value = "select new com.clueper.blogapp.payload.PostSummary(p.id, p.title, p.description, p.commentCount) from Post p",
+            countQuery = "select count(p) from Post p")
+    Page<PostSummary> findSummaries(Pageable pageable);
+
+    // Keyset scrolling over posts with their content; runs no count query
+    @EntityGraph(attributePaths = "postContent")
+    Window<Post> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // The post with its content, in one statement
+    @EntityGraph(attributePaths = "postContent")
+    Optional<Post> findWithContentById(Long id);
+
+    // The given posts with their content, in one statement and no particular order
+    @EntityGraph(attributePaths = "postContent")
+    List<Post> findWithContentByIdIn(Collection<Long> ids);
+
+    // Reads only the title, without loading the post entity
+    @Query("select p.title from Post p where p.id = :id")
+    Optional<String> findTitleById(@Param("id") Long id);
+
+    // Reads only the version, for conditional requests that should not load the post
+    @Query("select p.version from Post p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Reads only the versions of the given posts, to check posts just put in the DTO cache
+    @Query("select p.id as id, p.version as version from Post p where p.id in :ids")
+    List<PostVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Marks the post and its comments as changed without loading the post; returns the number of rows updated
+    @Modifying
+    @Query("update Post p set p.version = p.version + 1 where p.id = :id")
+    int incrementVersion(@Param("id") Long id);
+
+    // Adds delta to the post's comment count and bumps its version in one atomic UPDATE, so concurrent
+    // commenters never lose an increment; returns the number of rows updated
+    @Modifying
+    @Query("update Post p set p.commentCount = p.commentCount + :delta, p.version = p.version + 1 where p.id = :id")
+    int adjustCommentCount(@Param("id") Long id, @Param("delta") long delta);
+
+    // Summaries of the given posts, in no particular order
+    @Query("select new com.clueper.blogapp.payload.PostSummary(p.id, p.title, p.description, p.commentCount) "
+            + "from Post p where p.id in :ids")
+    List<PostSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // The ids of the given posts' contents, to delete them once the posts are gone
+    @Query("select p.postContent.id from Post p where p.id in :ids")
+    List<Long> findContentIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Deletes the given posts without loading them; their comments must be deleted first, their contents after
+    @Modifying
+    @Query("delete from Post p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Recounts the comments of the posts with ids in [fromId, toId] and fixes only the ones that drifted;
+    // returns the number of posts repaired
+    @Modifying
+    @Query("update Post p set p.commentCount = (select count(c) from Comment c where c.post = p), p.version = p.version + 1 "
+            + "where p.id between :fromId and :toId and p.commentCount <> (select count(c) from Comment c where c.post = p)")
+    int reconcileCommentCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // The subset of the given ids that belong to existing posts
+    @Query("select p.id from Post p where p.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select min(p.id) from Post p")
+    Optional<Long> findMinId();
+
+    @Query("select max(p.id) from Post p")
+    Optional<Long> findMaxId();
+
+    // Forward-only stream over all posts and their contents for exports; must be consumed inside a transaction
+    // and closed. The content is joined because a lazy one would cost a statement per streamed post.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Post p join fetch p.postContent order by p.id")
+    Stream<Post> streamAllOrderById();
+
+    interface PostVersion {
+        Long getId();
+
+        Long getVersion();
+    }
 }
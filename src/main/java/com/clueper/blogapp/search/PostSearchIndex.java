@@ -0,0 +1,291 @@
+package com.clueper.blogapp.search;
+
+import com.clueper.blogapp.payload.PostSearchHit;
+import com.clueper.blogapp.payload.PostSearchResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over post title, description and content, ranked with BM25.
+// Each indexed version of a post gets a new internal document number; postings hold those numbers.
+// Numbers of removed or re-indexed versions are reclaimed by compacting once they outnumber the live ones.
+@Component
+public class PostSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Dead document numbers tolerated before compacting, whatever the number of live documents
+    private static final int MIN_DEAD_DOCS_TO_COMPACT = 1024;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private final Map<Long, Integer> docByPostId = new HashMap<>();
+
+    // Per-document data, indexed by document number
+    private long[] postIds = new long[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private String[][] terms = new String[INITIAL_CAPACITY][];
+
+    private int nextDoc;
+    private int liveDocs;
+    private long totalLength;
+
+    // Adds a post to the index, replacing any previously indexed version of it
+    public void index(Long postId, String title, String description, String content) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        int length = addTokens(frequencies, title, TITLE_WEIGHT)
+                + addTokens(frequencies, description, DESCRIPTION_WEIGHT)
+                + addTokens(frequencies, content, CONTENT_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+            compactIfSparseLocked();
+
+            int doc = nextDoc++;
+            ensureCapacity(doc);
+            postIds[doc] = postId;
+            lengths[doc] = length;
+            titles[doc] = title;
+            descriptions[doc] = description;
+            terms[doc] = frequencies.keySet().toArray(String[]::new);
+            for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+                postingsByTerm.computeIfAbsent(frequency.getKey(), term -> new Postings())
+                        .append(doc, frequency.getValue());
+            }
+
+            docByPostId.put(postId, doc);
+            liveDocs++;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+            compactIfSparseLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postingsByTerm.clear();
+            docByPostId.clear();
+            Arrays.fill(titles, null);
+            Arrays.fill(descriptions, null);
+            Arrays.fill(terms, null);
+            nextDoc = 0;
+            liveDocs = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns the requested page of posts matching any query term, best BM25 score first
+    public PostSearchResponse search(String query, int pageNo, int pageSize) {
+        List<String> queryTerms = new ArrayList<>(tokenize(query).keySet());
+        int wanted = (int) Math.min((long) (pageNo + 1) * pageSize, Integer.MAX_VALUE);
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(queryTerms.size());
+            double[] idfs = new double[queryTerms.size()];
+            for (String term : queryTerms) {
+                Postings postings = postingsByTerm.get(term);
+                if (postings != null) {
+                    idfs[lists.size()] = Math.log(1 + (liveDocs - postings.size() + 0.5) / (postings.size() + 0.5));
+                    lists.add(postings);
+                }
+            }
+
+            double averageLength = liveDocs == 0 ? 1 : (double) totalLength / liveDocs;
+            int[] cursors = new int[lists.size()];
+            PriorityQueue<PostSearchHit> top = new PriorityQueue<>(
+                    (a, b) -> a.getScore() != b.getScore() ? Double.compare(a.getScore(), b.getScore()) : Long.compare(b.getId(), a.getId()));
+            int totalHits = 0;
+
+            // Document-at-a-time merge over the query terms' postings
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (int i = 0; i < lists.size(); i++) {
+                    if (cursors[i] < lists.get(i).size()) {
+                        doc = Math.min(doc, lists.get(i).doc(cursors[i]));
+                    }
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                double score = 0;
+                for (int i = 0; i < lists.size(); i++) {
+                    Postings postings = lists.get(i);
+                    if (cursors[i] < postings.size() && postings.doc(cursors[i]) == doc) {
+                        int freq = postings.freq(cursors[i]);
+                        score += idfs[i] * freq * (K1 + 1) / (freq + norm);
+                        cursors[i]++;
+                    }
+                }
+
+                totalHits++;
+                if (top.size() < wanted) {
+                    top.add(hit(doc, score));
+                } else if (wanted > 0 && score > top.peek().getScore()) {
+                    top.poll();
+                    top.add(hit(doc, score));
+                }
+            }
+
+            List<PostSearchHit> ranked = new ArrayList<>(top);
+            ranked.sort(Collections.reverseOrder(top.comparator()));
+            int from = Math.min((int) Math.min((long) pageNo * pageSize, Integer.MAX_VALUE), ranked.size());
+            return new PostSearchResponse(new ArrayList<>(ranked.subList(from, ranked.size())), pageNo, pageSize, totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Document numbers in use, live or dead; bounded by about twice the live documents
+    int capacityUsed() {
+        lock.readLock().lock();
+        try {
+            return nextDoc;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PostSearchHit hit(int doc, double score) {
+        return new PostSearchHit(postIds[doc], titles[doc], descriptions[doc], score);
+    }
+
+    private void removeLocked(Long postId) {
+        Integer doc = docByPostId.remove(postId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : terms[doc]) {
+            Postings postings = postingsByTerm.get(term);
+            postings.remove(doc);
+            if (postings.size() == 0) {
+                postingsByTerm.remove(term);
+            }
+        }
+        liveDocs--;
+        totalLength -= lengths[doc];
+        titles[doc] = null;
+        descriptions[doc] = null;
+        terms[doc] = null;
+    }
+
+    // Renumbers the live documents densely, keeping their order so every postings list stays sorted.
+    // Runs once dead numbers outnumber live ones, so its cost is spread over at least as many updates.
+    private void compactIfSparseLocked() {
+        int dead = nextDoc - liveDocs;
+        if (dead < MIN_DEAD_DOCS_TO_COMPACT || dead <= liveDocs) {
+            return;
+        }
+        int[] renumbered = new int[nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (terms[doc] == null) {
+                continue;
+            }
+            renumbered[doc] = live;
+            postIds[live] = postIds[doc];
+            lengths[live] = lengths[doc];
+            titles[live] = titles[doc];
+            descriptions[live] = descriptions[doc];
+            terms[live] = terms[doc];
+            docByPostId.put(postIds[live], live);
+            live++;
+        }
+        for (Postings postings : postingsByTerm.values()) {
+            postings.renumber(renumbered);
+        }
+
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(live, 1)) * 2);
+        postIds = Arrays.copyOf(postIds, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        terms = Arrays.copyOf(terms, capacity);
+        Arrays.fill(titles, live, capacity, null);
+        Arrays.fill(descriptions, live, capacity, null);
+        Arrays.fill(terms, live, capacity, null);
+        nextDoc = live;
+    }
+
+    private void ensureCapacity(int doc) {
+        if (doc < postIds.length) {
+            return;
+        }
+        int capacity = postIds.length * 2;
+        postIds = Arrays.copyOf(postIds, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        terms = Arrays.copyOf(terms, capacity);
+    }
+
+    // Adds the weighted frequency of each token in the text and returns the weighted token count
+    private static int addTokens(Map<String, Integer> frequencies, String text, int weight) {
+        int count = 0;
+        for (Map.Entry<String, Integer> token : tokenize(text).entrySet()) {
+            frequencies.merge(token.getKey(), token.getValue() * weight, Integer::sum);
+            count += token.getValue() * weight;
+        }
+        return count;
+    }
+
+    // Lower-cased runs of letters and digits, with their frequencies
+    static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> tokens = new LinkedHashMap<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.merge(text.substring(start, i).toLowerCase(Locale.ROOT), 1, Integer::sum);
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,51 @@
+package com.clueper.blogapp.search;
+
+import java.util.Arrays;
+
+// Postings list of one term: parallel primitive arrays of document numbers (ascending) and weighted term frequencies
+final class Postings {
+
+    private int[] docs = new int[4];
+    private int[] freqs = new int[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int doc(int index) {
+        return docs[index];
+    }
+
+    int freq(int index) {
+        return freqs[index];
+    }
+
+    // Document numbers only grow, so new postings are always appended at the end
+    void append(int doc, int freq) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            freqs = Arrays.copyOf(freqs, size * 2);
+        }
+        docs[size] = doc;
+        freqs[size] = freq;
+        size++;
+    }
+
+    // Maps every document number through renumbered, which must preserve their order
+    void renumber(int[] renumbered) {
+        for (int i = 0; i < size; i++) {
+            docs[i] = renumbered[docs[i]];
+        }
+    }
+
+    void remove(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+        System.arraycopy(freqs, index + 1, freqs, index, size - index - 1);
+        size--;
+    }
+}
@@ -1,5 +1,7 @@
 package com.clueper.blogapp.service;
 
+import com.clueper.blogapp.payload.CommentBatchResponse;
+import com.clueper.blogapp.payload.CommentCursorResponse;
 import com.clueper.blogapp.payload.CommentDto;
 
 import java.util.List;
@@ -7,7 +9,13 @@ import java.util.List;
 public interface CommentService {
     CommentDto createComment(CommentDto commentDto, Long postId);
 
-    List<CommentDto> getCommentsByPostId(Long postId);
+    void acceptComment(CommentDto commentDto, Long postId);
+
+    CommentBatchResponse createComments(List<CommentDto> commentDtos, Long postId);
+
+    CommentCursorResponse getCommentsByPostId(Long postId, String after, int pageSize);
+
+    Long getCommentsVersion(Long postId);
 
     CommentDto getCommentById(Long postId, Long commentId);
 
@@ -1,18 +1,45 @@
 package com.clueper.blogapp.service;
 
+import com.clueper.blogapp.payload.PostBatchResponse;
+import com.clueper.blogapp.payload.PostCursorResponse;
 import com.clueper.blogapp.payload.PostDto;
 import com.clueper.blogapp.payload.PostResponse;
+import com.clueper.blogapp.payload.PostSearchResponse;
+import com.clueper.blogapp.payload.PostSummaryResponse;
+import com.clueper.blogapp.payload.TrendingPost;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PostService {
     PostDto createPost(PostDto postDto);
 
     PostResponse getAllPosts(int pageNo, int pageSize, String sortBy, String sortDir);
 
+    PostSummaryResponse getPostSummaries(int pageNo, int pageSize, String sortBy, String sortDir);
+
+    PostCursorResponse getAllPostsAfter(String after, int pageSize, String sortBy, String sortDir);
+
     PostDto getPostById(Long id);
 
+    InputStream openPostContent(Long id);
+
+    PostBatchResponse getPostsByIds(List<Long> ids);
+
+    void recordView(Long id);
+
+    List<TrendingPost> getTrendingPosts(int size);
+
+    Long getPostVersion(Long id);
+
     PostDto updatePost(Long id, PostDto postDto);
 
     void deletePost(Long id);
+
+    void purgePosts(List<Long> ids);
+
+    void exportPosts(Consumer<PostDto> consumer);
+
+    PostSearchResponse searchPosts(String query, int pageNo, int pageSize);
 }
@@ -0,0 +1,57 @@
+package com.clueper.blogapp.service.impl;
+
+import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.utils.AppConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Periodically recounts comments and repairs posts whose comment_count drifted, e.g. after manual
+// data fixes or when the column was first added. Works through id ranges, one short transaction each.
+@Service
+public class CommentCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentCountReconciler.class);
+    private static final long CHUNK_SIZE = 1000;
+
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+
+    public CommentCountReconciler(PostRepository postRepository, TransactionTemplate transactionTemplate,
+                                  CacheManager cacheManager) {
+        this.postRepository = postRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+    }
+
+    // Returns the number of posts whose count was repaired
+    @Scheduled(initialDelayString = "${blogapp.comment-count.reconcile-initial-delay:PT1H}",
+            fixedDelayString = "${blogapp.comment-count.reconcile-interval:PT1H}")
+    public int reconcile() {
+        long minId = postRepository.findMinId().orElse(0L);
+        long maxId = postRepository.findMaxId().orElse(-1L);
+
+        int repaired = 0;
+        for (long fromId = minId; fromId <= maxId; fromId += CHUNK_SIZE) {
+            long from = fromId;
+            long to = Math.min(fromId + CHUNK_SIZE - 1, maxId);
+            Integer chunkRepaired = transactionTemplate.execute(status -> postRepository.reconcileCommentCounts(from, to));
+            repaired += chunkRepaired == null ? 0 : chunkRepaired;
+        }
+
+        if (repaired > 0) {
+            // Cached post DTOs may carry the wrong count
+            Cache cache = cacheManager.getCache(AppConstants.POST_DTO_CACHE);
+            if (cache != null) {
+                cache.clear();
+            }
+            logger.warn("Repaired comment_count of {} posts", repaired);
+        }
+        return repaired;
+    }
+}
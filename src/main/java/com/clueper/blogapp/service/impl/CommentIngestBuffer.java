@@ -0,0 +1,370 @@
+package com.clueper.blogapp.service.impl;
+
+import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.mapper.CommentMapper;
+import com.clueper.blogapp.payload.CommentDto;
+import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.utils.AppConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.hibernate.exception.JDBCConnectionException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Write-behind buffer for comments: accepted comments wait in a bounded in-memory queue and a single
+// writer thread stores them in grouped transactions. A batch is written once it reaches max-batch-size
+// or its first comment has waited flush-interval. Comments still queued are lost if the process dies.
+// A failed batch is never dropped as a whole: transient failures (lock timeouts, deadlocks, lost connections)
+// set its comments aside to be written again once a backoff has passed, up to max-attempts writes each, while
+// the writer carries on with newer comments; any other failure splits the batch by post and then by comment,
+// so only the comments that cannot be stored are lost.
+@Component
+@ConditionalOnProperty(name = "blogapp.comment-ingest.enabled", havingValue = "true")
+public class CommentIngestBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentIngestBuffer.class);
+
+    private final BlockingQueue<PendingComment> queue;
+    // Comments waiting out a retry backoff, in the order they become due; only touched by the writer thread
+    // (and by stop() once it has finished)
+    private final Queue<PendingComment> retries = new PriorityQueue<>(Comparator.comparingLong(PendingComment::notBefore));
+    private final int retryCapacity;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final int maxAttempts;
+    private final long retryBackoffNanos;
+
+    private final PostRepository postRepository;
+    private final CommentMapper mapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+
+    private final Timer flushTimer;
+    private final Counter written;
+    private final Counter rejected;
+    private final Counter dropped;
+    private final Counter failed;
+
+    // Offers hold the read lock from their running check until their comment is queued; stop() takes the write
+    // lock to stop accepting, so no comment can be queued after the final drain
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    public CommentIngestBuffer(@Value("${blogapp.comment-ingest.queue-capacity:10000}") int queueCapacity,
+                               @Value("${blogapp.comment-ingest.max-batch-size:500}") int maxBatchSize,
+                               @Value("${blogapp.comment-ingest.flush-interval:200ms}") Duration flushInterval,
+                               @Value("${blogapp.comment-ingest.offer-timeout:0ms}") Duration offerTimeout,
+                               @Value("${blogapp.comment-ingest.max-attempts:3}") int maxAttempts,
+                               @Value("${blogapp.comment-ingest.retry-backoff:100ms}") Duration retryBackoff,
+                               PostRepository postRepository, CommentMapper mapper, EntityManager entityManager,
+                               TransactionTemplate transactionTemplate, CacheManager cacheManager,
+                               MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.retryCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.postRepository = postRepository;
+        this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+
+        Gauge.builder("blogapp.comment.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Accepted comments waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("blogapp.comment.ingest.flush")
+                .description("Time to write one batch of buffered comments")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.written = counter(meterRegistry, "written", "Buffered comments written to the database");
+        this.rejected = counter(meterRegistry, "rejected", "Comments refused because the queue was full");
+        this.dropped = counter(meterRegistry, "dropped", "Buffered comments dropped because their post no longer exists");
+        this.failed = counter(meterRegistry, "failed", "Buffered comments lost because they could not be written");
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "comment-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stops accepting work and writes whatever is still queued before the datasource goes away
+    @PreDestroy
+    void stop() throws InterruptedException {
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        // Comments still waiting out a backoff get one last try now rather than being lost
+        List<PendingComment> remaining = new ArrayList<>(retries);
+        retries.clear();
+        while (!remaining.isEmpty() || queue.drainTo(remaining, maxBatchSize) > 0) {
+            write(remaining);
+            remaining.clear();
+        }
+        if (!retries.isEmpty()) {
+            logger.error("Gave up on {} buffered comments that failed again while stopping", retries.size());
+            failed.increment(retries.size());
+            retries.clear();
+        }
+    }
+
+    // Queues a validated comment; returns false when the queue stayed full for the whole offer timeout
+    public boolean offer(Long postId, CommentDto commentDto) {
+        boolean accepted;
+        acceptLock.readLock().lock();
+        try {
+            accepted = running && queue.offer(new PendingComment(postId, commentDto, 0, 0), offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        if (!accepted) {
+            rejected.increment();
+        }
+        return accepted;
+    }
+
+    private void writeLoop() {
+        List<PendingComment> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                // Comments whose retry is due go first; otherwise wait for a new one, but no longer than
+                // until the next retry is due
+                takeDueRetries(batch);
+                if (batch.isEmpty()) {
+                    PendingComment first = queue.poll(nanosUntilNextRetry(), TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+
+                // Linger until the batch is full or the first comment has waited the flush interval
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingComment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // The flush is timed before the outcome counters move, so a reader that sees the counters also sees the flush
+    private void write(List<PendingComment> batch) {
+        long start = System.nanoTime();
+        Outcome outcome = new Outcome();
+        try {
+            writeIsolated(batch, outcome);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            written.increment(outcome.written);
+            dropped.increment(outcome.dropped);
+            failed.increment(outcome.failed);
+        }
+    }
+
+    // Helper method to store comments, narrowing down a failing batch until only the comments that cannot be
+    // stored are left; those are counted as failed
+    private void writeIsolated(List<PendingComment> batch, Outcome outcome) {
+        try {
+            int stored = store(batch);
+            outcome.written += stored;
+            outcome.dropped += batch.size() - stored;
+            evictPosts(batch.stream().map(PendingComment::postId).collect(Collectors.toSet()));
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                outcome.failed += retryLater(batch, e);
+            } else if (batch.size() > 1) {
+                for (List<PendingComment> part : split(batch)) {
+                    writeIsolated(part, outcome);
+                }
+            } else {
+                outcome.failed++;
+                logger.error("Failed to write a buffered comment on post {}", batch.get(0).postId(), e);
+            }
+        }
+    }
+
+    // Writes comments in a single transaction: one query for the posts that still exist, batched INSERTs,
+    // and one comment-count update per post; returns the number stored
+    private int store(List<PendingComment> batch) {
+        Map<Long, List<CommentDto>> byPost = new LinkedHashMap<>();
+        for (PendingComment pending : batch) {
+            byPost.computeIfAbsent(pending.postId(), postId -> new ArrayList<>()).add(pending.commentDto());
+        }
+        Integer stored = transactionTemplate.execute(status -> {
+            Set<Long> existing = postRepository.findExistingIds(byPost.keySet());
+            int count = 0;
+            for (Map.Entry<Long, List<CommentDto>> entry : byPost.entrySet()) {
+                if (!existing.contains(entry.getKey())) {
+                    continue;
+                }
+                for (CommentDto commentDto : entry.getValue()) {
+                    Comment comment = mapper.toEntity(commentDto);
+                    comment.setPost(postRepository.getReferenceById(entry.getKey()));
+                    entityManager.persist(comment);
+                }
+                entityManager.flush();
+                postRepository.adjustCommentCount(entry.getKey(), entry.getValue().size());
+                count += entry.getValue().size();
+            }
+            entityManager.clear();
+            return count;
+        });
+        return stored == null ? 0 : stored;
+    }
+
+    // Helper method to split a failed batch: by post when it spans several posts, otherwise into single comments
+    private static Collection<List<PendingComment>> split(List<PendingComment> batch) {
+        Map<Long, List<PendingComment>> byPost = batch.stream()
+                .collect(Collectors.groupingBy(PendingComment::postId, LinkedHashMap::new, Collectors.toList()));
+        if (byPost.size() > 1) {
+            return byPost.values();
+        }
+        return batch.stream().map(List::of).toList();
+    }
+
+    // Helper method to set the comments of a transiently failed batch aside until a backoff has passed, without
+    // holding up the comments queued behind them. Returns the number of comments that used up their attempts
+    // or found the retries full.
+    private int retryLater(List<PendingComment> batch, RuntimeException cause) {
+        int attempt = batch.stream().mapToInt(PendingComment::attempts).max().orElse(0) + 1;
+        logger.warn("Transient failure writing {} buffered comments (attempt {}), retrying", batch.size(), attempt, cause);
+        long notBefore = System.nanoTime() + (retryBackoffNanos << Math.min(attempt - 1, 6));
+        int lost = 0;
+        for (PendingComment pending : batch) {
+            if (pending.attempts() + 1 >= maxAttempts || retries.size() >= retryCapacity) {
+                lost++;
+            } else {
+                retries.add(pending.retried(notBefore));
+            }
+        }
+        if (lost > 0) {
+            logger.error("Gave up on {} buffered comments after a transient failure", lost, cause);
+        }
+        return lost;
+    }
+
+    // Helper method to move the retries that are due into the batch, up to the batch size
+    private void takeDueRetries(List<PendingComment> batch) {
+        long now = System.nanoTime();
+        while (batch.size() < maxBatchSize && !retries.isEmpty() && retries.peek().notBefore() - now <= 0) {
+            batch.add(retries.poll());
+        }
+    }
+
+    // Helper method to bound the wait for new comments: at most a second, so stop() is noticed, and no later
+    // than the next retry is due
+    private long nanosUntilNextRetry() {
+        long wait = TimeUnit.SECONDS.toNanos(1);
+        if (!retries.isEmpty()) {
+            wait = Math.min(wait, Math.max(0, retries.peek().notBefore() - System.nanoTime()));
+        }
+        return wait;
+    }
+
+    // Lock timeouts, deadlocks and unavailable connections, which may succeed when tried again
+    private static boolean isTransient(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                    || cause instanceof CannotCreateTransactionException || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException || cause instanceof LockAcquisitionException
+                    || cause instanceof JDBCConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictPosts(Set<Long> postIds) {
+        Cache cache = cacheManager.getCache(AppConstants.POST_DTO_CACHE);
+        if (cache != null) {
+            postIds.forEach(cache::evict);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome, String description) {
+        return Counter.builder("blogapp.comment.ingest." + outcome)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    // Comments written, dropped and failed while writing one batch
+    private static final class Outcome {
+        int written;
+        int dropped;
+        int failed;
+    }
+
+    // notBefore is the System.nanoTime() before which a retried comment is not written again
+    private record PendingComment(Long postId, CommentDto commentDto, int attempts, long notBefore) {
+
+        PendingComment retried(long notBefore) {
+            return new PendingComment(postId, commentDto, attempts + 1, notBefore);
+        }
+    }
+}
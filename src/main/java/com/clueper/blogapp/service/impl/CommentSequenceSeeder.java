@@ -0,0 +1,64 @@
+package com.clueper.blogapp.service.impl;
+
+import com.clueper.blogapp.utils.AppConstants;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+// Moves comments_seq past the highest comment id before the application takes traffic. Comment ids were
+// AUTO_INCREMENT before they came from the pooled sequence. The MySQL migration that adds the sequence seeds it,
+// but neither ddl-auto=update nor the H2 migration does, so its first ids would collide with existing comments.
+// Runs after the entity manager factory, so the schema exists and no comment id has been allocated yet.
+@Service
+@DependsOn("entityManagerFactory")
+public class CommentSequenceSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentSequenceSeeder.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CommentSequenceSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns the value the sequence was moved to, or -1 if it was already ahead of every comment
+    @PostConstruct
+    public long seed() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from comments", Long.class);
+        if (maxId == null) {
+            return -1;
+        }
+        long next = nextValueAbove(maxId);
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+
+        boolean moved;
+        if ("H2".equals(database)) {
+            Long current = jdbcTemplate.queryForObject(
+                    "select base_value from information_schema.sequences where sequence_name = 'COMMENTS_SEQ'", Long.class);
+            moved = current != null && current < next;
+            if (moved) {
+                jdbcTemplate.execute("alter sequence comments_seq restart with " + next);
+            }
+        } else {
+            // MySQL, where Hibernate emulates the sequence with a single-row table
+            moved = jdbcTemplate.update("update comments_seq set next_val = ? where next_val < ?", next, next) > 0;
+        }
+        if (!moved) {
+            return -1;
+        }
+        logger.warn("Moved comments_seq to {}, past the highest existing comment id {}", next, maxId);
+        return next;
+    }
+
+    // Hibernate's pooled optimizer hands out the allocationSize ids up to and including the value it reads,
+    // so the sequence must be at least maxId + allocationSize; rounded up to a multiple of the allocation size
+    static long nextValueAbove(long maxId) {
+        long size = AppConstants.COMMENT_ID_ALLOCATION_SIZE;
+        return (maxId + 2 * size - 1) / size * size;
+    }
+}
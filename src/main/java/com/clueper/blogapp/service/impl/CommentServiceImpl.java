@@ -4,93 +4,223 @@ import com.clueper.blogapp.entity.Comment;
 import com.clueper.blogapp.entity.Post;
 import com.clueper.blogapp.exception.BlogApiException;
 import com.clueper.blogapp.exception.ResourceNotFoundException;
+import com.clueper.blogapp.mapper.CommentMapper;
+import com.clueper.blogapp.payload.CommentBatchResponse;
+import com.clueper.blogapp.payload.CommentBatchResult;
+import com.clueper.blogapp.payload.CommentCursorResponse;
 import com.clueper.blogapp.payload.CommentDto;
 import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.CommentRepository.CommentWithPostTitle;
 import com.clueper.blogapp.repository.PostRepository;
 import com.clueper.blogapp.service.CommentService;
-import org.modelmapper.ModelMapper;
+import com.clueper.blogapp.utils.AppConstants;
+import com.clueper.blogapp.utils.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class CommentServiceImpl implements CommentService {
 
+    // Batched comments are flushed and detached every FLUSH_SIZE entities to keep the persistence context small
+    private static final int FLUSH_SIZE = 500;
+    private static final int MAX_COLUMN_LENGTH = 255;
+
     // Dependencies for accessing comment and post data
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
-    private final ModelMapper mapper;
+    private final CommentMapper mapper;
+    private final EntityManager entityManager;
+    // Only present when asynchronous ingestion is enabled
+    private final CommentIngestBuffer ingestBuffer;
 
     // Constructor injection for dependencies
-    public CommentServiceImpl(ModelMapper mapper, CommentRepository commentRepository, PostRepository postRepository) {
+    public CommentServiceImpl(CommentMapper mapper, CommentRepository commentRepository, PostRepository postRepository,
+                              EntityManager entityManager, ObjectProvider<CommentIngestBuffer> ingestBuffer) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.ingestBuffer = ingestBuffer.getIfAvailable();
     }
 
     // Creates a new comment for a given post
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = AppConstants.POST_DTO_CACHE, key = "#postId")
     public CommentDto createComment(CommentDto commentDto, Long postId) {
         // Convert CommentDto to Comment entity
         Comment comment = mapToEntity(commentDto);
 
-        // Find the post by ID or throw exception if not found
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(postId)));
-        comment.setPost(post); // Associate comment with the post
+        // Count the comment on the post, which also tells us whether the post exists, then read its title;
+        // the UPDATE holds the post's row lock until commit, so the title is always there
+        if (postRepository.adjustCommentCount(postId, 1) == 0) {
+            throw new ResourceNotFoundException("Post", "id", Long.toString(postId));
+        }
+        String postTitle = postRepository.findTitleById(postId).orElseThrow();
+        comment.setPost(postRepository.getReferenceById(postId)); // Associate comment with the post by reference
 
         // Save the comment entity to the database
         Comment savedComment = commentRepository.save(comment);
 
         // Convert saved Comment entity back to CommentDto and return
-        return mapToDto(savedComment);
+        return mapToDto(savedComment, postTitle);
     }
 
+    // Validates a comment and hands it to the write-behind buffer without touching the database;
+    // comments for posts that turn out not to exist are dropped when the buffer is written
     @Override
-    public List<CommentDto> getCommentsByPostId(Long postId) {
-        // Find comments by post ID
-        List<Comment> comments = commentRepository.findByPostId(postId);
+    public void acceptComment(CommentDto commentDto, Long postId) {
+        if (ingestBuffer == null) {
+            throw new BlogApiException(HttpStatus.NOT_FOUND, "Asynchronous comment ingestion is not enabled");
+        }
+        String error = validateForBatch(commentDto);
+        if (error != null) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST, error);
+        }
+        if (!ingestBuffer.offer(postId, commentDto)) {
+            throw new BlogApiException(HttpStatus.SERVICE_UNAVAILABLE, "Comment queue is full, retry later");
+        }
+    }
 
-        // Convert each Comment entity to CommentDto
-        return comments.stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    // Creates many comments for a given post using JDBC batched INSERTs, reporting a result per item
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = AppConstants.POST_DTO_CACHE, key = "#postId")
+    public CommentBatchResponse createComments(List<CommentDto> commentDtos, Long postId) {
+        if (commentDtos.size() > AppConstants.MAX_COMMENT_BATCH_SIZE) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST,
+                    "A batch can contain at most " + AppConstants.MAX_COMMENT_BATCH_SIZE + " comments");
+        }
+
+        // Bump the post version, which also makes sure the post exists, then associate every comment with it by reference
+        if (postRepository.incrementVersion(postId) == 0) {
+            throw new ResourceNotFoundException("Post", "id", Long.toString(postId));
+        }
+        Post post = postRepository.getReferenceById(postId);
+
+        List<CommentBatchResult> results = new ArrayList<>(commentDtos.size());
+        List<Comment> pending = new ArrayList<>(FLUSH_SIZE);
+        List<CommentBatchResult> pendingResults = new ArrayList<>(FLUSH_SIZE);
+        int created = 0;
+
+        for (int i = 0; i < commentDtos.size(); i++) {
+            CommentDto commentDto = commentDtos.get(i);
+
+            // Reject items that would fail the whole JDBC batch, instead of failing the request
+            String error = validateForBatch(commentDto);
+            if (error != null) {
+                results.add(new CommentBatchResult(i, CommentBatchResult.Status.REJECTED, null, error));
+                continue;
+            }
+
+            Comment comment = mapToEntity(commentDto);
+            comment.setPost(post);
+            entityManager.persist(comment);
+
+            CommentBatchResult result = new CommentBatchResult(i, CommentBatchResult.Status.CREATED, null, null);
+            results.add(result);
+            pending.add(comment);
+            pendingResults.add(result);
+            created++;
+
+            if (pending.size() == FLUSH_SIZE) {
+                flushBatch(pending, pendingResults);
+            }
+        }
+        flushBatch(pending, pendingResults);
+        if (created > 0) {
+            postRepository.adjustCommentCount(postId, created);
+        }
+
+        return new CommentBatchResponse(created, results.size() - created, results);
     }
 
+    // Retrieves the page of a post's comments following the given cursor, in id order
     @Override
-    public CommentDto getCommentById(Long postId, Long commentId) {
-        // Find the post by ID or throw exception if not found
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(postId)));
+    @Transactional(readOnly = true)
+    public CommentCursorResponse getCommentsByPostId(Long postId, String after, int pageSize) {
+        if (pageSize < 1) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Page size must be positive");
+        }
+        int limit = Math.min(pageSize, AppConstants.MAX_COMMENT_PAGE_SIZE);
 
-        // Find comment by ID or throw exception if not found
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", Long.toString(commentId)));
-        // Convert Comment entity to CommentDto and return
+        // An empty cursor starts from the first comment; otherwise it carries the id of the last comment seen
+        long afterId = 0;
+        if (!after.isEmpty()) {
+            Map<String, Object> keys = KeysetCursor.decode(after);
+            if (!(keys.size() == 1 && keys.get("id") instanceof Long id)) {
+                throw new BlogApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            afterId = id;
+        }
 
-        // Check if the comment belongs to the post
-        if (!comment.getPost().getId().equals(post.getId())) {
-            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Comment does not belong to the post");
+        // Read the post title once, or throw exception if the post is not found
+        String postTitle = postRepository.findTitleById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(postId)));
+
+        // Fetch one extra comment to find out whether there is a next page
+        List<Comment> comments = commentRepository.findByPostIdAndIdGreaterThanOrderById(postId, afterId, Limit.of(limit + 1));
+        boolean hasNext = comments.size() > limit;
+        if (hasNext) {
+            comments = comments.subList(0, limit);
         }
 
-        return mapToDto(comment);
+        List<CommentDto> content = comments.stream()
+                .map(comment -> mapToDto(comment, postTitle))
+                .collect(Collectors.toList());
+
+        CommentCursorResponse response = new CommentCursorResponse();
+        response.setContent(content);
+        response.setPageSize(limit);
+        response.setNumberOfElements(content.size());
+        response.setHasNext(hasNext);
+        if (hasNext) {
+            response.setNextCursor(KeysetCursor.encode(Map.of("id", comments.get(comments.size() - 1).getId())));
+        }
+        return response;
     }
 
+    // Comment changes bump the post version, so it also versions the post's comment list
     @Override
-    public CommentDto updateComment(CommentDto commentDto, Long postId, Long commentId) {
-        // Find the post by ID or throw exception if not found
-        Post post = postRepository.findById(postId)
+    @Transactional(readOnly = true)
+    public Long getCommentsVersion(Long postId) {
+        return postRepository.findVersionById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(postId)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CommentDto getCommentById(Long postId, Long commentId) {
+        // Find the comment of the post, or work out whether the post or the comment is missing
+        CommentWithPostTitle found = commentRepository.findByPostIdAndId(postId, commentId)
+                .orElseThrow(() -> commentLookupFailure(postId, commentId));
 
-        // Find the comment by ID or throw exception if not found
-        Comment existingComment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", Long.toString(commentId)));
+        // Convert Comment entity to CommentDto and return
+        return mapToDto(found.getComment(), found.getPostTitle());
+    }
 
-        // Check if the comment belongs to the post
-        if (!existingComment.getPost().getId().equals(post.getId())) {
-            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Comment does not belong to the post");
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = AppConstants.POST_DTO_CACHE, key = "#postId")
+    public CommentDto updateComment(CommentDto commentDto, Long postId, Long commentId) {
+        // Find the comment of the post, or work out whether the post or the comment is missing
+        CommentWithPostTitle found = commentRepository.findByPostIdAndId(postId, commentId)
+                .orElseThrow(() -> commentLookupFailure(postId, commentId));
+        Comment existingComment = found.getComment();
+
+        // A client that sends the version it read must still be looking at the current comment
+        if (commentDto.getVersion() != null && !commentDto.getVersion().equals(existingComment.getVersion())) {
+            throw new BlogApiException(HttpStatus.CONFLICT, "Comment was modified by another request");
         }
 
         // Update the fields of the existing comment
@@ -98,48 +228,76 @@ public class CommentServiceImpl implements CommentService {
         existingComment.setEmail(commentDto.getEmail());
         existingComment.setBody(commentDto.getBody());
 
-        // Save the updated comment entity
-        Comment updatedComment = commentRepository.save(existingComment);
+        // Save the updated comment entity and mark the post as changed
+        Comment updatedComment = commentRepository.saveAndFlush(existingComment);
+        postRepository.incrementVersion(postId);
 
         // Convert the updated Comment entity back to CommentDto and return
-        return mapToDto(updatedComment);
+        return mapToDto(updatedComment, found.getPostTitle());
     }
 
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = AppConstants.POST_DTO_CACHE, key = "#postId")
     public void deleteComment(Long postId, Long commentId) {
-        // Find the post by ID or throw exception if not found
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(postId)));
+        // Delete the comment only if it belongs to the post
+        if (commentRepository.deleteByPostIdAndId(postId, commentId) == 0) {
+            throw commentLookupFailure(postId, commentId);
+        }
+        postRepository.adjustCommentCount(postId, -1);
+    }
 
-        // Find the comment by ID or throw exception if not found
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", Long.toString(commentId)));
+    // Helper method to write the pending comments as JDBC batches and detach them
+    private void flushBatch(List<Comment> pending, List<CommentBatchResult> pendingResults) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        for (int i = 0; i < pending.size(); i++) {
+            pendingResults.get(i).setId(pending.get(i).getId());
+        }
+        entityManager.clear();
+        pending.clear();
+        pendingResults.clear();
+    }
 
-        // Check if the comment belongs to the post
-        if (!comment.getPost().getId().equals(post.getId())) {
-            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Comment does not belong to the post");
+    // Helper method to check a batched or queued comment, returning the reason it is rejected or null
+    private String validateForBatch(CommentDto commentDto) {
+        if (commentDto == null) {
+            return "Comment must not be null";
+        }
+        if (commentDto.getBody() == null || commentDto.getBody().isBlank()) {
+            return "Comment body must not be empty";
+        }
+        if (exceedsColumn(commentDto.getName()) || exceedsColumn(commentDto.getEmail()) || exceedsColumn(commentDto.getBody())) {
+            return "Comment fields must be at most " + MAX_COLUMN_LENGTH + " characters";
         }
+        return null;
+    }
 
-        // Delete the comment
-        commentRepository.delete(comment);
+    private boolean exceedsColumn(String value) {
+        return value != null && value.length() > MAX_COLUMN_LENGTH;
+    }
+
+    // Helper method to explain a missed (postId, commentId) lookup: 404 if the post or the comment
+    // does not exist, 400 if the comment belongs to another post. Only runs on the error path.
+    private RuntimeException commentLookupFailure(Long postId, Long commentId) {
+        if (!postRepository.existsById(postId)) {
+            return new ResourceNotFoundException("Post", "id", Long.toString(postId));
+        }
+        if (!commentRepository.existsById(commentId)) {
+            return new ResourceNotFoundException("Comment", "id", Long.toString(commentId));
+        }
+        return new BlogApiException(HttpStatus.BAD_REQUEST, "Comment does not belong to the post");
     }
 
     // Helper method to convert CommentDto to Comment entity
     private Comment mapToEntity(CommentDto commentDto) {
-        Comment comment = mapper.map(commentDto, Comment.class);
-//        comment.setId(commentDto.getId());
-//        comment.setName(commentDto.getName());
-//        comment.setEmail(commentDto.getEmail());
-//        comment.setBody(commentDto.getBody());
-        return comment;
+        return mapper.toEntity(commentDto);
     }
 
-    // Helper method to convert Comment entity to CommentDto
-    private CommentDto mapToDto(Comment comment) {
-        CommentDto dto = mapper.map(comment, CommentDto.class);
-        if (comment.getPost() != null) {
-            dto.setPostTitle(comment.getPost().getTitle());
-        }
-        return dto;
+    // Helper method to convert Comment entity to CommentDto with a known post title
+    private CommentDto mapToDto(Comment comment, String postTitle) {
+        return mapper.toDto(comment, postTitle);
     }
 }
-
@@ -0,0 +1,133 @@
+package com.clueper.blogapp.service.impl;
+
+import com.clueper.blogapp.exception.BlogApiException;
+import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.PostContentRepository;
+import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.search.PostSearchIndex;
+import com.clueper.blogapp.utils.AppConstants;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Deletes many posts with set-based statements in short transactions: comments go COMMENT_CHUNK_SIZE
+// rows at a time, then the posts POST_CHUNK_SIZE at a time, so neither the persistence context nor the
+// locks held grow with the number of comments. Purges run one at a time on a background thread; at most
+// queue-capacity more wait behind the running one, and further purges are refused with 503 until one finishes.
+@Service
+public class PostPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostPurger.class);
+    private static final int POST_CHUNK_SIZE = 100;
+    private static final int COMMENT_CHUNK_SIZE = 1000;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final PostContentRepository postContentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final PostSearchIndex searchIndex;
+    private final ExecutorService executor;
+
+    public PostPurger(PostRepository postRepository, CommentRepository commentRepository,
+                      PostContentRepository postContentRepository, TransactionTemplate transactionTemplate,
+                      CacheManager cacheManager, PostSearchIndex searchIndex,
+                      @Value("${blogapp.purge.queue-capacity:10}") int queueCapacity) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.postContentRepository = postContentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.searchIndex = searchIndex;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "post-purge");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<Integer> purgeAsync(Collection<Long> postIds) {
+        List<Long> ids = List.copyOf(postIds);
+        CompletableFuture<Integer> purge;
+        try {
+            purge = CompletableFuture.supplyAsync(() -> purge(ids), executor);
+        } catch (RejectedExecutionException e) {
+            throw new BlogApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many purges are queued, retry later");
+        }
+        return purge.whenComplete((deleted, failure) -> {
+            if (failure != null) {
+                logger.error("Purge of {} posts failed", ids.size(), failure);
+            } else {
+                logger.info("Purged {} of {} requested posts", deleted, ids.size());
+            }
+        });
+    }
+
+    // Returns the number of posts deleted; ids of posts that do not exist are skipped
+    public int purge(Collection<Long> postIds) {
+        List<Long> ids = postIds.stream().distinct().toList();
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += POST_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + POST_CHUNK_SIZE, ids.size()));
+            deleteComments(chunk);
+            // Also sweeps up comments added since the last chunk, so the post delete never trips the foreign key;
+            // the contents go last, once no post points at them
+            Integer chunkDeleted = transactionTemplate.execute(status -> {
+                commentRepository.deleteByPostIdIn(chunk);
+                List<Long> contentIds = postRepository.findContentIdsByIdIn(chunk);
+                int posts = postRepository.deleteByIdIn(chunk);
+                if (!contentIds.isEmpty()) {
+                    postContentRepository.deleteByIdIn(contentIds);
+                }
+                return posts;
+            });
+            deleted += chunkDeleted == null ? 0 : chunkDeleted;
+            forget(chunk);
+        }
+        return deleted;
+    }
+
+    // Helper method to delete the posts' comments a bounded number of rows per transaction
+    private void deleteComments(List<Long> postIds) {
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<Long> commentIds = commentRepository.findIdsByPostIdIn(postIds, Limit.of(COMMENT_CHUNK_SIZE));
+                return commentIds.isEmpty() ? 0 : commentRepository.deleteByIdIn(commentIds);
+            });
+        } while (deleted != null && deleted == COMMENT_CHUNK_SIZE);
+    }
+
+    // Helper method to drop deleted posts from the DTO cache and the search index
+    private void forget(List<Long> postIds) {
+        Cache cache = cacheManager.getCache(AppConstants.POST_DTO_CACHE);
+        for (Long id : postIds) {
+            if (cache != null) {
+                cache.evict(id);
+            }
+            searchIndex.remove(id);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
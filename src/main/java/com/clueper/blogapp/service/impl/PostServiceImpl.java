@@ -1,59 +1,131 @@
 // src/main/java/com/clueper/blogapp/service/impl/PostServiceImpl.java
 package com.clueper.blogapp.service.impl;
 
+import com.clueper.blogapp.config.ReadRouting;
+import com.clueper.blogapp.entity.Comment;
 import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.exception.BlogApiException;
 import com.clueper.blogapp.exception.ResourceNotFoundException;
+import com.clueper.blogapp.mapper.PostMapper;
+import com.clueper.blogapp.payload.PostBatchResponse;
+import com.clueper.blogapp.payload.PostCursorResponse;
 import com.clueper.blogapp.payload.PostDto;
 import com.clueper.blogapp.payload.PostResponse;
+import com.clueper.blogapp.payload.PostSearchResponse;
+import com.clueper.blogapp.payload.PostSummary;
+import com.clueper.blogapp.payload.PostSummaryResponse;
+import com.clueper.blogapp.payload.TrendingPost;
+import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.PostContentRepository;
 import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.search.PostSearchIndex;
 import com.clueper.blogapp.service.PostService;
-import org.modelmapper.ModelMapper;
+import com.clueper.blogapp.utils.AppConstants;
+import com.clueper.blogapp.utils.CompressedText;
+import com.clueper.blogapp.utils.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PostServiceImpl implements PostService {
 
+    // Entities a streaming read may leave in the persistence context before it is cleared
+    private static final int STREAM_CLEAR_INTERVAL = Integer.parseInt(AppConstants.EXPORT_FETCH_SIZE);
+
     private final PostRepository postRepository;
-    public ModelMapper mapper;
+    private final CommentRepository commentRepository;
+    private final PostContentRepository postContentRepository;
+    private final PostMapper mapper;
+    private final EntityManager entityManager;
+    private final PostSearchIndex searchIndex;
+    private final PostPurger postPurger;
+    private final CacheManager cacheManager;
+    private final PostViewCounter viewCounter;
+    private final ReadRouting readRouting;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
     // Constructor injection for PostRepository
-    public PostServiceImpl(PostRepository postRepository, ModelMapper mapper) {
+    public PostServiceImpl(PostRepository postRepository, CommentRepository commentRepository,
+                           PostContentRepository postContentRepository, PostMapper mapper, EntityManager entityManager, PostSearchIndex searchIndex, PostPurger postPurger,
+                           CacheManager cacheManager, PostViewCounter viewCounter, ReadRouting readRouting,
+                           TransactionTemplate transactionTemplate) {
         this.mapper = mapper;
         this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.postContentRepository = postContentRepository;
+        this.entityManager = entityManager;
+        this.searchIndex = searchIndex;
+        this.postPurger = postPurger;
+        this.cacheManager = cacheManager;
+        this.viewCounter = viewCounter;
+        this.readRouting = readRouting;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     // Creates a new post and returns the saved post as a DTO
     @Override
+    @Transactional
     public PostDto createPost(PostDto postDto) {
         // Convert DTO to entity
         Post post = mapToEntity(postDto);
         // Save entity to database
         Post savedPost = postRepository.save(post);
-        // Convert saved entity back to DTO
-        return mapToDto(savedPost);
+        // Make the post searchable once it is committed
+        indexAfterCommit(savedPost);
+        // Convert saved entity back to DTO; a new post has no comments yet
+        return mapper.toDto(savedPost, List.of());
     }
 
     // Retrieves all posts and returns them as a list of DTOs
     @Override
+    @Transactional(readOnly = true)
     public PostResponse getAllPosts(int pageNo, int pageSize, String sortBy, String sortDir) {
 
         // Set the sorting direction
-        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        Sort sort = sortOf(sortBy, sortDir);
         Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
 
-        Page<Post> posts = postRepository.findAll(pageable);
-        List<Post> postList = posts.getContent();
+        // Page over ids first, then fetch the page's posts and their comment previews,
+        // so the number of statements stays the same whatever the page size
+        Page<Long> posts = postRepository.findPageOfIds(pageable);
+        List<Post> postList = findAllInOrder(posts.getContent());
 
-        List<PostDto> content =  postList.stream()
-                                        .map(post -> mapToDto(post)) // Convert each entity to DTO
-                                        .collect(Collectors.toList());
+        List<PostDto> content = mapToDtos(postList);
 
         // Create a PostResponse object to hold the response data
         PostResponse postResponse = new PostResponse();
@@ -73,28 +145,203 @@ public class PostServiceImpl implements PostService {
         return postResponse;
     }
 
-    // Retrieves a post by its ID and returns it as a DTO
+    // Retrieves a page of post summaries (id, title, description, comment count) without loading
+    // the post entities, their content or their comments
+    @Override
+    @Transactional(readOnly = true)
+    public PostSummaryResponse getPostSummaries(int pageNo, int pageSize, String sortBy, String sortDir) {
+
+        // Set the sorting direction
+        Sort sort = sortOf(sortBy, sortDir);
+        Page<PostSummary> summaries = postRepository.findSummaries(PageRequest.of(pageNo, pageSize, sort));
+
+        PostSummaryResponse response = new PostSummaryResponse();
+        response.setContent(summaries.getContent());
+        response.setPageNumber(summaries.getNumber());
+        response.setPageSize(summaries.getSize());
+        response.setTotalElements(summaries.getTotalElements());
+        response.setLastPage(summaries.isLast());
+        response.setTotalPages(summaries.getTotalPages());
+        response.setNumberOfElements(summaries.getNumberOfElements());
+        response.setHasNext(summaries.hasNext());
+        response.setHasPrevious(summaries.hasPrevious());
+
+        return response;
+    }
+
+    // Retrieves the page of posts following the given cursor, without counting the table
+    @Override
+    @Transactional(readOnly = true)
+    public PostCursorResponse getAllPostsAfter(String after, int pageSize, String sortBy, String sortDir) {
+        if (pageSize < 1) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Page size must be positive");
+        }
+
+        // Set the sorting direction
+        Sort sort = sortOf(sortBy, sortDir);
+
+        // An empty cursor starts from the first page; otherwise it must carry the current sort key and id,
+        // each with a value of the property's type
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        if (!after.isEmpty()) {
+            Map<String, Object> keys = KeysetCursor.decode(after);
+            Set<String> expectedKeys = sortBy.equals("id") ? Set.of("id") : Set.of(sortBy, "id");
+            if (!keys.keySet().equals(expectedKeys)
+                    || !keys.entrySet().stream().allMatch(key -> isCursorValueFor(key.getKey(), key.getValue()))) {
+                throw new BlogApiException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+            position = ScrollPosition.forward(keys);
+        }
+
+        Window<Post> posts = postRepository.findAllBy(position, sort, Limit.of(pageSize));
+
+        List<PostDto> content = mapToDtos(posts.getContent());
+
+        // Create a PostCursorResponse object to hold the response data
+        PostCursorResponse postResponse = new PostCursorResponse();
+        postResponse.setContent(content);
+        postResponse.setPageSize(pageSize);
+        postResponse.setNumberOfElements(content.size());
+        postResponse.setHasNext(posts.hasNext());
+        if (posts.hasNext()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) posts.positionAt(posts.size() - 1);
+            postResponse.setNextCursor(KeysetCursor.encode(last.getKeys()));
+        }
+
+        return postResponse;
+    }
+
+    // Retrieves a post by its ID and returns it as a DTO, from the DTO cache when it is there. A post loaded
+    // from the database is cached only once its read has committed, see cacheIfCurrent.
     @Override
     public PostDto getPostById(Long id) {
-        Post post = postRepository.findById(id)
+        Cache cache = cacheManager.getCache(AppConstants.POST_DTO_CACHE);
+        PostDto cached = cache != null ? cache.get(id, PostDto.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+        PostDto post = readOnlyTransactionTemplate.execute(status -> mapToDto(postRepository.findWithContentById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(id)))));
+        cacheIfCurrent(cache, List.of(post));
+        return post;
+    }
+
+    // Opens the post's content for streaming. Only the compressed bytes are read, and the connection is released
+    // before the caller reads the stream, which inflates them as it goes, so the text never exists as one String.
+    @Override
+    @Transactional(readOnly = true)
+    public InputStream openPostContent(Long id) {
+        byte[] compressed = postContentRepository.findCompressedByPostId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(id)));
+        return CompressedText.open(compressed);
+    }
+
+    // Retrieves many posts in the order of the given ids. Posts in the DTO cache are served from it; the rest
+    // are loaded with one query plus one comment preview query, and cached as getPostById does.
+    // Unknown ids are reported as missing.
+    @Override
+    public PostBatchResponse getPostsByIds(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > AppConstants.MAX_MULTI_GET_SIZE) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + AppConstants.MAX_MULTI_GET_SIZE + " post ids can be requested at once");
+        }
+        if (ids.contains(null)) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Post ids must not be null");
+        }
+
+        Cache cache = cacheManager.getCache(AppConstants.POST_DTO_CACHE);
+        Map<Long, PostDto> postsById = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            PostDto cached = cache != null ? cache.get(id, PostDto.class) : null;
+            if (cached != null) {
+                postsById.put(id, cached);
+            } else {
+                uncached.add(id);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            List<PostDto> loaded = readOnlyTransactionTemplate.execute(status -> mapToDtos(findAllInOrder(uncached)));
+            loaded.forEach(post -> postsById.put(post.getId(), post));
+            cacheIfCurrent(cache, loaded);
+        }
+
+        List<PostDto> content = new ArrayList<>(ids.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            PostDto post = postsById.get(id);
+            if (post != null) {
+                content.add(post);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new PostBatchResponse(content, missingIds);
+    }
+
+    // Counts a view of the post in memory; PostViewCounter writes the counts in batches
+    @Override
+    public void recordView(Long id) {
+        viewCounter.record(id);
+    }
+
+    // Returns the most viewed posts of the recent past from the view counter's published ranking, reading
+    // only the summaries of those posts; posts deleted since the last ranking are skipped
+    @Override
+    @Transactional(readOnly = true)
+    public List<TrendingPost> getTrendingPosts(int size) {
+        if (size < 1) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Size must be positive");
+        }
+        List<PostViewCounter.TrendingEntry> entries = viewCounter.getTrending().stream().limit(size).toList();
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PostSummary> summaries = postRepository.findSummariesByIdIn(
+                        entries.stream().map(PostViewCounter.TrendingEntry::postId).toList()).stream()
+                .collect(Collectors.toMap(PostSummary::getId, Function.identity()));
+
+        List<TrendingPost> trending = new ArrayList<>(entries.size());
+        for (PostViewCounter.TrendingEntry entry : entries) {
+            PostSummary summary = summaries.get(entry.postId());
+            if (summary != null) {
+                trending.add(new TrendingPost(summary.getId(), summary.getTitle(), summary.getDescription(),
+                        summary.getCommentCount(), entry.score()));
+            }
+        }
+        return trending;
+    }
+
+    // Reads only the post's version, so conditional requests can be answered without loading the post
+    @Override
+    @Transactional(readOnly = true)
+    public Long getPostVersion(Long id) {
+        return postRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(id)));
-        return mapToDto(post);
     }
 
     // Updates an existing post and returns the updated post as a DTO
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = AppConstants.POST_DTO_CACHE, key = "#id")
     public PostDto updatePost(Long id, PostDto postDto) {
         // Find the existing post
-        Post existingPost = postRepository.findById(id)
+        Post existingPost = postRepository.findWithContentById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(id)));
 
+        // A client that sends the version it read must still be looking at the current post
+        if (postDto.getVersion() != null && !postDto.getVersion().equals(existingPost.getVersion())) {
+            throw new BlogApiException(HttpStatus.CONFLICT, "Post was modified by another request");
+        }
+
         // Update the fields of the existing post
         existingPost.setTitle(postDto.getTitle());
         existingPost.setDescription(postDto.getDescription());
         existingPost.setContent(postDto.getContent());
 
-        // Save the updated post
-        Post updatedPost = postRepository.save(existingPost);
+        // Save and flush the updated post, so the returned DTO carries the bumped version
+        Post updatedPost = postRepository.saveAndFlush(existingPost);
+        indexAfterCommit(updatedPost);
 
         // Convert the updated entity back to DTO
         return mapToDto(updatedPost);
@@ -102,31 +349,202 @@ public class PostServiceImpl implements PostService {
 
     // Deletes a post by its ID
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = AppConstants.POST_DTO_CACHE, key = "#id")
     public void deletePost(Long id) {
-        // Check if the post exists
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", Long.toString(id)));
-        // Delete the post
-        postRepository.delete(post);
+        // Delete the comments, the post and its content with one statement each, instead of loading every
+        // comment for the cascade and deleting them one by one
+        commentRepository.deleteByPostIdIn(List.of(id));
+        List<Long> contentIds = postRepository.findContentIdsByIdIn(List.of(id));
+        if (postRepository.deleteByIdIn(List.of(id)) == 0) {
+            throw new ResourceNotFoundException("Post", "id", Long.toString(id));
+        }
+        postContentRepository.deleteByIdIn(contentIds);
+        afterCommit(() -> searchIndex.remove(id));
+    }
+
+    // Hands many posts to the purger, which deletes them in the background in bounded chunks
+    @Override
+    public void purgePosts(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > AppConstants.MAX_PURGE_SIZE) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST,
+                    "A purge must list between 1 and " + AppConstants.MAX_PURGE_SIZE + " post ids");
+        }
+        if (ids.contains(null)) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Post ids must not be null");
+        }
+        postPurger.purgeAsync(ids);
+    }
+
+    // Streams every post with its comments to the consumer. Posts (by id) and comments (by post id)
+    // are read as two forward-only streams and merged, so memory stays flat whatever the table size.
+    // The persistence context is cleared by the number of entities read, posts, contents and comments alike,
+    // so posts with many comments cannot pile up between clears.
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPosts(Consumer<PostDto> consumer) {
+        try (Stream<Post> posts = postRepository.streamAllOrderById();
+             Stream<Comment> comments = commentRepository.streamAllOrderByPostId()) {
+            Iterator<Comment> commentIterator = comments.iterator();
+            Comment nextComment = commentIterator.hasNext() ? commentIterator.next() : null;
+            int loaded = 0;
+
+            for (Iterator<Post> postIterator = posts.iterator(); postIterator.hasNext(); ) {
+                Post post = postIterator.next();
+
+                // Collect this post's comments, skipping any whose post was not in the post stream
+                List<Comment> postComments = new ArrayList<>();
+                while (nextComment != null && nextComment.getPost().getId() <= post.getId()) {
+                    if (nextComment.getPost().getId().equals(post.getId())) {
+                        postComments.add(nextComment);
+                    }
+                    nextComment = commentIterator.hasNext() ? commentIterator.next() : null;
+                    loaded++;
+                }
+
+                consumer.accept(mapper.toDto(post, postComments));
+
+                // Detach what has been written so the persistence context does not grow with the export;
+                // the post and its content are two entities
+                loaded += 2;
+                if (loaded >= STREAM_CLEAR_INTERVAL) {
+                    entityManager.clear();
+                    loaded = 0;
+                }
+            }
+        }
+    }
+
+    // Ranks posts by title, description and content matches using the in-memory index
+    @Override
+    public PostSearchResponse searchPosts(String query, int pageNo, int pageSize) {
+        if (pageNo < 0) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Page number must not be negative");
+        }
+        if (pageSize < 1) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST, "Page size must be positive");
+        }
+        return searchIndex.search(query, pageNo, pageSize);
+    }
+
+    // Rebuilds the search index from the database once the application has started
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildSearchIndex() {
+        searchIndex.clear();
+        try (Stream<Post> posts = postRepository.streamAllOrderById()) {
+            int loaded = 0;
+            for (Iterator<Post> postIterator = posts.iterator(); postIterator.hasNext(); ) {
+                Post post = postIterator.next();
+                searchIndex.index(post.getId(), post.getTitle(), post.getDescription(), post.getContent());
+                // The post and its content are two entities
+                loaded += 2;
+                if (loaded >= STREAM_CLEAR_INTERVAL) {
+                    entityManager.clear();
+                    loaded = 0;
+                }
+            }
+        }
+    }
+
+    // Helper method to update the search index with the post's current fields after the transaction commits
+    private void indexAfterCommit(Post post) {
+        Long id = post.getId();
+        String title = post.getTitle();
+        String description = post.getDescription();
+        String content = post.getContent();
+        afterCommit(() -> searchIndex.index(id, title, description, content));
+    }
+
+    // Helper method to run an action after the current transaction commits, or right away without one
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Helper method to build the requested sort. Only the posts' own columns can be sorted on: the content is
+    // compressed in post_contents, and an unknown property would only fail later in the query
+    private static Sort sortOf(String sortBy, String sortDir) {
+        if (!AppConstants.POST_SORT_PROPERTIES.contains(sortBy)) {
+            throw new BlogApiException(HttpStatus.BAD_REQUEST,
+                    "Posts can only be sorted by " + String.join(", ", AppConstants.POST_SORT_PROPERTIES));
+        }
+        return sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
     }
 
+    // Helper method to check a decoded cursor value against the type of the sort property it is for: the text
+    // columns take strings and the id and counts take longs
+    private static boolean isCursorValueFor(String property, Object value) {
+        return switch (property) {
+            case "title", "description" -> value instanceof String;
+            default -> value instanceof Long;
+        };
+    }
+
+    // Helper method to cache posts whose read transaction has committed. A write that commits after the read
+    // evicts the key once it has committed, which can be just before the put here and would leave the old post
+    // cached until it expires; so each entry is checked against the post's version on the primary after it is
+    // put, and evicted if it is already stale. A write that commits after that check evicts it itself.
+    // Posts read from a replica are never cached, see ReadRouting.
+    private void cacheIfCurrent(Cache cache, List<PostDto> posts) {
+        if (cache == null || posts.isEmpty() || readRouting.readsMayBeStale()) {
+            return;
+        }
+        posts.forEach(post -> cache.put(post.getId(), post));
+        List<Long> ids = posts.stream().map(PostDto::getId).toList();
+        Map<Long, Long> versions = transactionTemplate.execute(status -> postRepository.findVersionsByIdIn(ids).stream()
+                .collect(Collectors.toMap(PostRepository.PostVersion::getId, PostRepository.PostVersion::getVersion)));
+        for (PostDto post : posts) {
+            if (!post.getVersion().equals(versions.get(post.getId()))) {
+                cache.evict(post.getId());
+            }
+        }
+    }
+
+    // Helper method to load posts with their content in one query, keeping the order of the given ids
+    private List<Post> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Post> postsById = postRepository.findWithContentByIdIn(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return ids.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 
     // Helper method to convert PostDto to Post entity
     private Post mapToEntity(PostDto postDto) {
-        Post post = mapper.map(postDto, Post.class);
-//        post.setTitle(postDto.getTitle());
-//        post.setDescription(postDto.getDescription());
-//        post.setContent(postDto.getContent());
-        return post;
+        return mapper.toEntity(postDto);
     }
 
-    // Helper method to convert Post entity to PostDto
+    // Helper method to convert Post entity to PostDto, with a preview of its comments
     private PostDto mapToDto(Post post) {
-        PostDto postDto = mapper.map(post, PostDto.class);
-//        postDto.setId(post.getId());
-//        postDto.setTitle(post.getTitle());
-//        postDto.setDescription(post.getDescription());
-//        postDto.setContent(post.getContent());
-        return postDto;
+        return mapToDtos(List.of(post)).get(0);
+    }
+
+    // Helper method to convert posts to DTOs with comment previews, in at most one statement whatever the number of posts;
+    // comment counts come from the posts themselves, and posts without comments are not queried
+    private List<PostDto> mapToDtos(List<Post> posts) {
+        List<Long> commentedIds = posts.stream()
+                .filter(post -> post.getCommentCount() > 0)
+                .map(Post::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Comment>> previews = commentedIds.isEmpty() ? Map.of()
+                : commentRepository.findPreviewsByPostIdIn(commentedIds, AppConstants.COMMENT_PREVIEW_SIZE).stream()
+                        .collect(Collectors.groupingBy(comment -> comment.getPost().getId()));
+
+        return posts.stream()
+                .map(post -> mapper.toDto(post, previews.getOrDefault(post.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 }
\ No newline at end of file
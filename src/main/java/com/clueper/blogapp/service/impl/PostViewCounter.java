@@ -0,0 +1,154 @@
+package com.clueper.blogapp.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Counts post views in memory and writes them to posts.view_count in one JDBC batch per flush, instead of
+// an UPDATE per view. Each flush also folds the new views into exponentially decaying per-post scores and
+// publishes the top posts, so trending reads never touch the database. Counts and scores are per instance;
+// views recorded since the last flush are lost if the instance dies.
+@Service
+public class PostViewCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostViewCounter.class);
+    private static final String INCREMENT_VIEWS = "update posts set view_count = view_count + ? where id = ?";
+    // Scores that decayed below this are forgotten: a single view is dropped after one half-life
+    private static final double MIN_SCORE = 0.5;
+    // Scores are kept for at most this many times trending-size posts, so a crawler touching every post
+    // cannot make the map, or the work of each flush, grow with the posts table
+    private static final int CANDIDATES_PER_TRENDING_POST = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double halfLifeNanos;
+    private final int trendingSize;
+    private final int maxCandidates;
+    // Striped counters: recording a view is a map lookup plus a LongAdder increment, with no lock
+    private final ConcurrentMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Only touched by flush(), which never runs concurrently with itself
+    private final Map<Long, Double> scores = new HashMap<>();
+    private long lastDecayNanos = System.nanoTime();
+    private volatile List<TrendingEntry> trending = List.of();
+
+    public PostViewCounter(JdbcTemplate jdbcTemplate,
+                           @Value("${blogapp.views.trending-half-life:PT1H}") Duration halfLife,
+                           @Value("${blogapp.views.trending-size:100}") int trendingSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.halfLifeNanos = halfLife.toNanos();
+        this.trendingSize = trendingSize;
+        this.maxCandidates = trendingSize * CANDIDATES_PER_TRENDING_POST;
+    }
+
+    public void record(Long postId) {
+        pending.computeIfAbsent(postId, id -> new LongAdder()).increment();
+    }
+
+    // The current top posts by decayed view score, highest first
+    public List<TrendingEntry> getTrending() {
+        return trending;
+    }
+
+    // Posts currently holding a trending score
+    synchronized int candidateCount() {
+        return scores.size();
+    }
+
+    // Writes the views counted since the last flush and refreshes the trending list; returns the posts updated
+    @Scheduled(initialDelayString = "${blogapp.views.flush-interval:PT10S}",
+            fixedDelayString = "${blogapp.views.flush-interval:PT10S}")
+    public synchronized int flush() {
+        Map<Long, Long> views = drain();
+        if (!views.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(views.size());
+            views.forEach((postId, count) -> batch.add(new Object[]{count, postId}));
+            try {
+                jdbcTemplate.batchUpdate(INCREMENT_VIEWS, batch);
+            } catch (RuntimeException e) {
+                // Keep the counts for the next flush rather than dropping them
+                views.forEach((postId, count) -> pending.computeIfAbsent(postId, id -> new LongAdder()).add(count));
+                logger.warn("Could not write view counts of {} posts, retrying on the next flush", views.size(), e);
+            }
+        }
+        updateTrending(views);
+        return views.size();
+    }
+
+    // Helper method to take the counted views out of the counters. Subtracting what was read, rather than
+    // resetting, keeps views recorded concurrently for the next flush. Idle counters are removed; a view
+    // racing with the removal of its counter can be lost, which is acceptable for view counts.
+    private Map<Long, Long> drain() {
+        Map<Long, Long> views = new HashMap<>();
+        Iterator<Map.Entry<Long, LongAdder>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, LongAdder> entry = entries.next();
+            long count = entry.getValue().sum();
+            if (count == 0) {
+                entries.remove();
+            } else {
+                entry.getValue().add(-count);
+                views.put(entry.getKey(), count);
+            }
+        }
+        return views;
+    }
+
+    // Helper method to decay every score by the time since the last flush, add the new views and publish
+    // the top entries. Decay turns the scores into a sliding window of roughly one or two half-lives.
+    // Only the best maxCandidates scores survive, picked with a bounded heap rather than a full sort.
+    private void updateTrending(Map<Long, Long> views) {
+        long now = System.nanoTime();
+        double decay = Math.pow(0.5, (now - lastDecayNanos) / halfLifeNanos);
+        lastDecayNanos = now;
+
+        scores.replaceAll((postId, score) -> score * decay);
+        views.forEach((postId, count) -> scores.merge(postId, (double) count, Double::sum));
+        scores.values().removeIf(score -> score < MIN_SCORE);
+
+        if (scores.size() > maxCandidates) {
+            Set<Long> kept = top(maxCandidates).stream().map(TrendingEntry::postId).collect(Collectors.toSet());
+            scores.keySet().retainAll(kept);
+        }
+        trending = top(trendingSize);
+    }
+
+    // Helper method to pick the size highest scores, highest first, in O(n log size)
+    private List<TrendingEntry> top(int size) {
+        if (size == 0) {
+            return List.of();
+        }
+        Comparator<TrendingEntry> byScore = Comparator.comparingDouble(TrendingEntry::score);
+        PriorityQueue<TrendingEntry> heap = new PriorityQueue<>(size + 1, byScore);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (heap.size() < size) {
+                heap.add(new TrendingEntry(entry.getKey(), entry.getValue()));
+            } else if (entry.getValue() > heap.peek().score()) {
+                heap.poll();
+                heap.add(new TrendingEntry(entry.getKey(), entry.getValue()));
+            }
+        }
+        List<TrendingEntry> top = new ArrayList<>(heap);
+        top.sort(byScore.reversed());
+        return List.copyOf(top);
+    }
+
+    public record TrendingEntry(Long postId, double score) {
+    }
+}
@@ -1,9 +1,23 @@
 package com.clueper.blogapp.utils;
 
+import java.util.List;
+
 public class AppConstants {
     public static final String DEFAULT_PAGE_NUMBER = "0";
     public static final String DEFAULT_PAGE_SIZE = "10";
     public static final String DEFAULT_SORT_BY = "id";
     public static final String DEFAULT_SORT_DIR = "asc";
+    public static final List<String> POST_SORT_PROPERTIES = List.of("id", "title", "description", "commentCount", "viewCount");
     public static final String POST_DELETED = "Post deleted successfully";
+    public static final String POSTS_PURGE_ACCEPTED = "Post purge accepted";
+    public static final int MAX_PURGE_SIZE = 10000;
+    public static final String POST_DTO_CACHE = "postDtos";
+    public static final int MAX_COMMENT_BATCH_SIZE = 10000;
+    public static final String EXPORT_FETCH_SIZE = "500";
+    public static final String DEFAULT_COMMENT_PAGE_SIZE = "20";
+    public static final int MAX_COMMENT_PAGE_SIZE = 100;
+    public static final int COMMENT_PREVIEW_SIZE = 3;
+    public static final int MAX_MULTI_GET_SIZE = 100;
+    public static final String DEFAULT_TRENDING_SIZE = "10";
+    public static final int COMMENT_ID_ALLOCATION_SIZE = 50;
 }
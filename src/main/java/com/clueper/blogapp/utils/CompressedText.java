@@ -0,0 +1,90 @@
+package com.clueper.blogapp.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// UTF-8 text compressed in the layout of MySQL's COMPRESS(): the uncompressed length as four little-endian
+// bytes followed by a zlib stream, and no bytes at all for the empty string. Stored values can be read
+// with UNCOMPRESS() in SQL, which is also how the migration that introduced them wrote the existing rows.
+public final class CompressedText {
+
+    private static final int HEADER_SIZE = 4;
+
+    private CompressedText() {
+    }
+
+    public static byte[] compress(String text) {
+        if (text.isEmpty()) {
+            return new byte[0];
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+        int length = raw.length & 0x3FFFFFFF;
+        out.write(length);
+        out.write(length >>> 8);
+        out.write(length >>> 16);
+        out.write(length >>> 24);
+        Deflater deflater = new Deflater();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+            deflate.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    // Inflates straight into a buffer of the recorded length, so the text is copied once on its way to a String
+    public static String decompress(byte[] data) {
+        if (data.length == 0) {
+            return "";
+        }
+        byte[] raw = new byte[uncompressedLength(data)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, HEADER_SIZE, data.length - HEADER_SIZE);
+            int read = 0;
+            while (read < raw.length) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != raw.length) {
+                throw new IllegalArgumentException("Compressed text is shorter than its recorded length");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Compressed text is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    // The UTF-8 bytes of the text as a stream, inflated as they are read; closing it releases the inflater
+    public static InputStream open(byte[] data) {
+        if (data.length == 0) {
+            return InputStream.nullInputStream();
+        }
+        uncompressedLength(data);
+        return new InflaterInputStream(new ByteArrayInputStream(data, HEADER_SIZE, data.length - HEADER_SIZE));
+    }
+
+    public static int uncompressedLength(byte[] data) {
+        if (data.length < HEADER_SIZE) {
+            throw new IllegalArgumentException("Compressed text is missing its length header");
+        }
+        return (data[0] & 0xFF) | (data[1] & 0xFF) << 8 | (data[2] & 0xFF) << 16 | (data[3] & 0x3F) << 24;
+    }
+}
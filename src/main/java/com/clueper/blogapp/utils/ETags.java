@@ -0,0 +1,68 @@
+package com.clueper.blogapp.utils;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+// Strong ETags derived from entity versions, so they can be checked without building the response body
+public final class ETags {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private ETags() {
+    }
+
+    // The ETag of the representation the Accept header selects. JSON, which wildcards also get, keeps the plain tag;
+    // CBOR and Smile bodies are different bytes, so their tags get a suffix and never match each other's
+    public static String of(Long id, Long version, String accept) {
+        return "\"" + id + "-" + version + representation(accept) + "\"";
+    }
+
+    // True if an If-None-Match header value matches the ETag; uses the weak comparison RFC 9110 requires for it
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Helper method to pick the same format the message converters will, from the most preferred acceptable type
+    private static String representation(String accept) {
+        if (accept == null) {
+            return "";
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (IllegalArgumentException e) {
+            // Spring answers an unparseable Accept with 406 anyway
+            return "";
+        }
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isWildcardSubtype() || mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "";
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "-cbor";
+            }
+            if (mediaType.isCompatibleWith(SMILE)) {
+                return "-smile";
+            }
+        }
+        return "";
+    }
+}
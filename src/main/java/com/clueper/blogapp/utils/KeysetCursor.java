@@ -0,0 +1,89 @@
+package com.clueper.blogapp.utils;
+
+import com.clueper.blogapp.exception.BlogApiException;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Encodes keyset positions (sort key values plus id) into opaque, URL-safe cursor tokens
+public final class KeysetCursor {
+
+    private static final byte LONG_TYPE = 'L';
+    private static final byte STRING_TYPE = 'S';
+    private static final int MAX_KEYS = 8;
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(Map<String, ?> keys) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(keys.size());
+            for (Map.Entry<String, ?> key : keys.entrySet()) {
+                out.writeUTF(key.getKey());
+                Object value = key.getValue();
+                if (value instanceof Number number) {
+                    out.writeByte(LONG_TYPE);
+                    out.writeLong(number.longValue());
+                } else if (value instanceof String string) {
+                    byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+                    out.writeByte(STRING_TYPE);
+                    out.writeInt(utf8.length);
+                    out.write(utf8);
+                } else {
+                    throw new IllegalArgumentException("Unsupported cursor value for " + key.getKey() + ": " + value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static Map<String, Object> decode(String cursor) {
+        try {
+            byte[] token = Base64.getUrlDecoder().decode(cursor);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(token));
+
+            int size = in.readUnsignedByte();
+            if (size == 0 || size > MAX_KEYS) {
+                throw invalidCursor();
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                String name = in.readUTF();
+                byte type = in.readByte();
+                if (type == LONG_TYPE) {
+                    keys.put(name, in.readLong());
+                } else if (type == STRING_TYPE) {
+                    int length = in.readInt();
+                    if (length < 0 || length > in.available()) {
+                        throw invalidCursor();
+                    }
+                    keys.put(name, new String(in.readNBytes(length), StandardCharsets.UTF_8));
+                } else {
+                    throw invalidCursor();
+                }
+            }
+            if (in.available() > 0) {
+                throw invalidCursor();
+            }
+            return keys;
+        } catch (IllegalArgumentException | IOException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static BlogApiException invalidCursor() {
+        return new BlogApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
@@ -0,0 +1,20 @@
+-- H2 version of the MySQL migration with the same number, for tests and benchmarks; keep the two in step
+
+create table posts (
+    id bigint generated by default as identity,
+    title varchar(255) not null,
+    description varchar(255) not null,
+    content varchar(255) not null,
+    primary key (id),
+    constraint uk_posts_title unique (title)
+);
+
+create table comments (
+    id bigint generated by default as identity,
+    name varchar(255),
+    email varchar(255),
+    body varchar(255),
+    post_id bigint not null,
+    primary key (id),
+    constraint fk_comments_post foreign key (post_id) references posts (id)
+);
@@ -0,0 +1,22 @@
+-- Schema as the application had it before versioned migrations, when ddl-auto=update created it. Databases
+-- created that way already have exactly this and are baselined at this version instead
+-- (spring.flyway.baseline-on-migrate); everything added since comes in later migrations.
+
+create table posts (
+    id bigint not null auto_increment,
+    title varchar(255) not null,
+    description varchar(255) not null,
+    content varchar(255) not null,
+    primary key (id),
+    constraint uk_posts_title unique (title)
+) engine=InnoDB;
+
+create table comments (
+    id bigint not null auto_increment,
+    name varchar(255),
+    email varchar(255),
+    body varchar(255),
+    post_id bigint not null,
+    primary key (id),
+    constraint fk_comments_post foreign key (post_id) references posts (id)
+) engine=InnoDB;
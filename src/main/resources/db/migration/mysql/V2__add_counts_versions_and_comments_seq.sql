@@ -0,0 +1,29 @@
+-- Stored comment and view counts, optimistic-locking versions, the listing indexes, and comment ids from the
+-- pooled comments_seq instead of AUTO_INCREMENT. Existing rows get their comment count and version 0.
+
+alter table posts
+    add column comment_count bigint not null default 0,
+    add column view_count bigint not null default 0,
+    add column version bigint not null default 0;
+
+alter table posts alter column version drop default;
+
+update posts p set comment_count = (select count(*) from comments c where c.post_id = p.id);
+
+create index idx_posts_comment_count_id on posts (comment_count, id);
+
+alter table comments
+    modify id bigint not null,
+    add column version bigint not null default 0;
+
+alter table comments alter column version drop default;
+
+create index idx_comments_post_id_id on comments (post_id, id);
+
+-- MySQL has no sequences; Hibernate emulates comments_seq with a single-row table. It starts past the highest
+-- AUTO_INCREMENT id, rounded up to the allocation size, as CommentSequenceSeeder does on every start.
+create table comments_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into comments_seq (next_val) select (coalesce(max(id), 0) + 99) div 50 * 50 from comments;
@@ -0,0 +1,21 @@
+-- Moves post content out of posts into post_contents, compressed with COMPRESS(), whose layout the application
+-- reads and writes itself (CompressedText). Loading a post no longer reads its content unless it is needed.
+
+create table post_contents (
+    id bigint not null auto_increment,
+    data longblob not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- Each existing post's content row takes the post's id, so the posts can be pointed at it in one update
+insert into post_contents (id, data) select id, compress(content) from posts;
+
+alter table posts add column content_id bigint;
+
+update posts set content_id = id;
+
+alter table posts
+    modify content_id bigint not null,
+    add constraint uk_posts_content_id unique (content_id),
+    add constraint fk_posts_content foreign key (content_id) references post_contents (id),
+    drop column content;
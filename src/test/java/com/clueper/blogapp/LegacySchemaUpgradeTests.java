@@ -0,0 +1,82 @@
+package com.clueper.blogapp;
+
+import com.clueper.blogapp.payload.CommentDto;
+import com.clueper.blogapp.payload.PostDto;
+import com.clueper.blogapp.service.CommentService;
+import com.clueper.blogapp.service.PostService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A database created by ddl-auto=update before the migrations existed has only the V1 schema. Flyway baselines it
+// at version 1, so everything added since must come from the later migrations for the prod profile to validate.
+class LegacySchemaUpgradeTests {
+
+	@Test
+	void legacyDatabaseIsMigratedAndStartsUnderTheProdProfile() {
+		String url = legacyDatabaseUrl();
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BlogappApplication.class)
+				.web(WebApplicationType.NONE)
+				.profiles("prod")
+				.run("--spring.datasource.url=" + url, "--spring.datasource.username=sa", "--spring.datasource.password=")) {
+			JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+			// Version 1 is the baseline; the later migrations really ran
+			assertThat(jdbcTemplate.queryForList("select \"type\" || ' ' || \"version\" from \"flyway_schema_history\" "
+					+ "where \"version\" is not null order by \"installed_rank\"", String.class))
+					.containsExactly("BASELINE 1", "SQL 2", "SQL 3");
+
+			PostDto post = context.getBean(PostService.class).createPost(new PostDto(null, "title", "description", "content", null, 0, null));
+			context.getBean(CommentService.class).createComment(new CommentDto(null, "name", "user@example.com", "body", null, null), post.getId());
+			assertThat(context.getBean(PostService.class).getPostById(post.getId()).getCommentCount()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void existingPostsAndCommentsGetTheirCountsAndVersions() {
+		String url = legacyDatabaseUrl();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource(url));
+		jdbcTemplate.update("insert into posts (title, description, content) values ('old', 'description', 'content')");
+		Long postId = jdbcTemplate.queryForObject("select id from posts", Long.class);
+		jdbcTemplate.update("insert into comments (name, email, body, post_id) values ('a', 'a@example.com', 'first', ?)", postId);
+		jdbcTemplate.update("insert into comments (name, email, body, post_id) values ('b', 'b@example.com', 'second', ?)", postId);
+
+		// Up to the migration that adds the counts; the next one needs an empty H2 database, see its header
+		Flyway.configure()
+				.dataSource(dataSource(url))
+				.locations("classpath:db/migration/h2")
+				.baselineOnMigrate(true)
+				.baselineVersion("1")
+				.target("2")
+				.load()
+				.migrate();
+
+		assertThat(jdbcTemplate.queryForObject("select comment_count from posts", Long.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("select version from posts", Long.class)).isZero();
+		assertThat(jdbcTemplate.queryForList("select version from comments", Long.class)).containsExactly(0L, 0L);
+		assertThat(jdbcTemplate.queryForObject("select view_count from posts", Long.class)).isZero();
+	}
+
+	// Helper method to create a fresh in-memory database holding the schema the application had before migrations
+	private static String legacyDatabaseUrl() {
+		String url = "jdbc:h2:mem:legacy-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+		new ResourceDatabasePopulator(new ClassPathResource("db/migration/h2/V1__create_posts_and_comments.sql"))
+				.execute(dataSource(url));
+		return url;
+	}
+
+	private static DataSource dataSource(String url) {
+		return new DriverManagerDataSource(url, "sa", "");
+	}
+}
@@ -0,0 +1,39 @@
+package com.clueper.blogapp;
+
+import com.clueper.blogapp.payload.CommentDto;
+import com.clueper.blogapp.payload.PostDto;
+import com.clueper.blogapp.service.CommentService;
+import com.clueper.blogapp.service.PostService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The prod profile builds the schema from the H2 migrations and has Hibernate validate it against the entities,
+// so a migration that falls out of step with the entity mappings fails here
+@SpringBootTest
+@ActiveProfiles("prod")
+class ProdProfileTests {
+
+	@Autowired
+	private PostService postService;
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void migratedSchemaPassesValidationAndWorks() {
+		assertThat(jdbcTemplate.queryForObject("select max(\"version\") from \"flyway_schema_history\"", String.class)).isEqualTo("3");
+
+		PostDto post = postService.createPost(new PostDto(null, "title", "description", "content", null, 0, null));
+		commentService.createComment(new CommentDto(null, "name", "user@example.com", "body", null, null), post.getId());
+
+		assertThat(postService.getPostById(post.getId()).getCommentCount()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,174 @@
+package com.clueper.blogapp.config;
+
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.payload.PostDto;
+import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.service.PostService;
+import com.clueper.blogapp.utils.CompressedText;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two embedded H2 databases stand in for the primary and a replica. Nothing replicates between them,
+// so which one served a read shows in the data.
+@SpringBootTest(properties = {
+		"blogapp.datasource.replica.urls=" + ReadWriteRoutingTests.REPLICA_URL,
+		"blogapp.datasource.replica.username=sa"
+})
+@AutoConfigureMockMvc
+class ReadWriteRoutingTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PostService postService;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private DataSource primaryDataSource;
+
+	private JdbcTemplate primary;
+	private JdbcTemplate replica;
+	private Long postId;
+
+	@BeforeEach
+	void setUp() {
+		primary = new JdbcTemplate(primaryDataSource);
+		replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+		replica.update("delete from posts");
+		replica.update("delete from post_contents");
+
+		Post post = new Post();
+		post.setTitle("primary title");
+		post.setDescription("description");
+		post.setContent("content");
+		postId = postRepository.save(post).getId();
+		replica.update("insert into post_contents (id, data) values (?, ?)", postId, CompressedText.compress("content"));
+		replica.update("insert into posts (id, title, description, content_id, comment_count, view_count, version) values (?, ?, ?, ?, 0, 0, 0)",
+				postId, "replica title", "description", postId);
+	}
+
+	// Gives the replica the primary's schema once Hibernate has created it, before startup reads run
+	@TestConfiguration
+	static class ReplicaSchema {
+
+		@EventListener(ContextRefreshedEvent.class)
+		void copySchema(ContextRefreshedEvent event) {
+			JdbcTemplate primary = new JdbcTemplate(event.getApplicationContext().getBean(DataSource.class));
+			JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+			replica.execute("drop all objects");
+			primary.queryForList("script nodata", String.class).stream()
+					.filter(statement -> !statement.startsWith("CREATE USER"))
+					.forEach(replica::execute);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		commentRepository.deleteAllInBatch();
+		postRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+		assertThat(postService.getPostById(postId).getTitle()).isEqualTo("replica title");
+		assertThat(postService.getAllPosts(0, 10, "id", "asc").getContent())
+				.extracting(PostDto::getTitle).containsExactly("replica title");
+
+		PostDto update = new PostDto();
+		update.setTitle("updated");
+		update.setDescription("description");
+		update.setContent("content");
+		postService.updatePost(postId, update);
+
+		assertThat(primary.queryForObject("select title from posts where id = ?", String.class, postId)).isEqualTo("updated");
+		assertThat(replica.queryForObject("select title from posts where id = ?", String.class, postId)).isEqualTo("replica title");
+	}
+
+	@Test
+	void clientThatJustWroteReadsFromThePrimary() throws Exception {
+		Cookie cookie = mockMvc.perform(put("/api/posts/{id}", postId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\":\"updated\",\"description\":\"d\",\"content\":\"c\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getCookie("blogapp_primary_until");
+		assertThat(cookie).isNotNull();
+
+		mockMvc.perform(get("/api/posts/{id}", postId).cookie(cookie))
+				.andExpect(jsonPath("$.title").value("updated"));
+		mockMvc.perform(get("/api/posts/{id}/comments", postId))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/posts").param("pageSize", "10"))
+				.andExpect(jsonPath("$.content[0].title").value("replica title"));
+	}
+
+	@Test
+	void writerSeesItsWriteAfterAnotherClientReadFromTheReplica() throws Exception {
+		String response = mockMvc.perform(put("/api/posts/{id}", postId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\":\"updated\",\"description\":\"d\",\"content\":\"c\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		Long version = JsonPath.parse(response).read("$.version", Long.class);
+		Cookie cookie = new Cookie("blogapp_primary_until", Long.toString(System.currentTimeMillis() + 60_000));
+
+		// an unpinned client reads the lagging replica, which must not end up in the shared cache
+		mockMvc.perform(get("/api/posts/{id}", postId))
+				.andExpect(jsonPath("$.title").value("replica title"));
+
+		mockMvc.perform(get("/api/posts/{id}", postId).cookie(cookie))
+				.andExpect(jsonPath("$.title").value("updated"))
+				.andExpect(jsonPath("$.version").value(version));
+		mockMvc.perform(get("/api/posts").param("ids", postId.toString()).cookie(cookie))
+				.andExpect(jsonPath("$.content[0].version").value(version));
+	}
+
+	@Test
+	void unreachableReplicaIsEjectedAndReadsFallBackToThePrimary() throws Exception {
+		DriverManagerDataSource unreachable = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/none");
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, List.of(unreachable));
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try (Connection connection = routing.getConnection()) {
+			assertThat(connection.isValid(1)).isTrue();
+		} finally {
+			TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		}
+		assertThat(routing.getHealthyReplicaCount()).isZero();
+
+		routing.checkReplicas();
+		assertThat(routing.getHealthyReplicaCount()).isZero();
+	}
+}
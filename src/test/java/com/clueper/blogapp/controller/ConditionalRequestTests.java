@@ -0,0 +1,95 @@
+package com.clueper.blogapp.controller;
+
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.PostRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalRequestTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	private Long postId;
+
+	@BeforeEach
+	void setUp() {
+		Post post = new Post();
+		post.setTitle("etag");
+		post.setDescription("description");
+		post.setContent("content");
+		postId = postRepository.save(post).getId();
+	}
+
+	@AfterEach
+	void tearDown() {
+		commentRepository.deleteAllInBatch();
+		postRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void unchangedPostIsNotModifiedUntilACommentIsAdded() throws Exception {
+		String etag = mockMvc.perform(get("/api/posts/{id}", postId))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isEqualTo("\"" + postId + "-0\"");
+
+		mockMvc.perform(get("/api/posts/{id}", postId).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+
+		mockMvc.perform(post("/api/posts/{id}/comments", postId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\":\"n\",\"email\":\"e@example.com\",\"body\":\"b\"}"))
+				.andExpect(status().isCreated());
+
+		mockMvc.perform(get("/api/posts/{id}", postId).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + postId + "-1\""));
+	}
+
+	@Test
+	void commentListIsNotModifiedWhileThePostVersionIsUnchanged() throws Exception {
+		String etag = mockMvc.perform(get("/api/posts/{id}/comments", postId))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/posts/{id}/comments", postId).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void updateWithStaleVersionIsConflict() throws Exception {
+		String body = "{\"title\":\"etag\",\"description\":\"d\",\"content\":\"c\",\"version\":0}";
+		mockMvc.perform(put("/api/posts/{id}", postId).contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + postId + "-1\""));
+
+		mockMvc.perform(put("/api/posts/{id}", postId).contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isConflict());
+	}
+}
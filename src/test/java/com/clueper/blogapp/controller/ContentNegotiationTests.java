@@ -0,0 +1,98 @@
+package com.clueper.blogapp.controller;
+
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.payload.PostResponse;
+import com.clueper.blogapp.repository.PostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ContentNegotiationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	private Long postId;
+
+	@BeforeEach
+	void setUp() {
+		Post post = new Post();
+		post.setTitle("negotiated");
+		post.setDescription("description");
+		post.setContent("content");
+		postId = postRepository.save(post).getId();
+	}
+
+	@AfterEach
+	void tearDown() {
+		postRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void postsAreServedAsJsonCborOrSmile() throws Exception {
+		assertThat(fetch(MediaType.APPLICATION_JSON, new ObjectMapper()).getContent().get(0).getTitle()).isEqualTo("negotiated");
+		assertThat(fetch(MediaType.APPLICATION_CBOR, new CBORMapper()).getContent().get(0).getTitle()).isEqualTo("negotiated");
+		assertThat(fetch(new MediaType("application", "x-jackson-smile"), new SmileMapper()).getContent().get(0).getTitle())
+				.isEqualTo("negotiated");
+	}
+
+	@Test
+	void eachRepresentationHasItsOwnETagAndResponsesVaryOnAccept() throws Exception {
+		MockHttpServletResponse json = mockMvc.perform(get("/api/posts/{id}", postId).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+		MockHttpServletResponse cbor = mockMvc.perform(get("/api/posts/{id}", postId).accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+		assertThat(json.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+		assertThat(cbor.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+		assertThat(json.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + postId + "-0\"");
+		assertThat(cbor.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + postId + "-0-cbor\"");
+
+		// A client holding the JSON body must not be told it is current for a CBOR request, and the other way round
+		mockMvc.perform(get("/api/posts/{id}", postId).accept(MediaType.APPLICATION_CBOR)
+						.header(HttpHeaders.IF_NONE_MATCH, json.getHeader(HttpHeaders.ETAG)))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+		mockMvc.perform(get("/api/posts/{id}", postId).header(HttpHeaders.IF_NONE_MATCH, cbor.getHeader(HttpHeaders.ETAG)))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/posts/{id}", postId).accept(MediaType.APPLICATION_CBOR)
+						.header(HttpHeaders.IF_NONE_MATCH, cbor.getHeader(HttpHeaders.ETAG)))
+				.andExpect(status().isNotModified())
+				.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+
+		mockMvc.perform(get("/api/posts/{id}/comments", postId).accept("application/json;q=0.5, application/x-jackson-smile"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + postId + "-0-smile\""));
+	}
+
+	private PostResponse fetch(MediaType mediaType, ObjectMapper mapper) throws Exception {
+		byte[] body = mockMvc.perform(get("/api/posts").accept(mediaType))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(mediaType))
+				.andReturn().getResponse().getContentAsByteArray();
+		return mapper.readValue(body, PostResponse.class);
+	}
+}
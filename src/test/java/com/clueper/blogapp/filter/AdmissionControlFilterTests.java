@@ -0,0 +1,85 @@
+package com.clueper.blogapp.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTests {
+
+	@Test
+	void rejectsWith503WhenNoPermitFreesUpInTime() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AdmissionControlFilter filter = new AdmissionControlFilter(1, Duration.ofMillis(50), registry);
+
+		CountDownLatch admitted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			try {
+				filter.doFilter(new MockHttpServletRequest("GET", "/api/posts"), new MockHttpServletResponse(), (request, response) -> {
+					admitted.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		holder.start();
+		assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/posts"), rejected, new MockFilterChain());
+		assertThat(rejected.getStatus()).isEqualTo(503);
+		assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(registry.counter("blogapp.admission.rejected").count()).isEqualTo(1);
+
+		release.countDown();
+		holder.join();
+
+		MockHttpServletResponse accepted = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/posts"), accepted, new MockFilterChain());
+		assertThat(accepted.getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void asyncRequestHoldsItsPermitUntilItCompletes() throws Exception {
+		AdmissionControlFilter filter = new AdmissionControlFilter(1, Duration.ZERO, new SimpleMeterRegistry());
+
+		MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/api/posts/export");
+		streaming.setAsyncSupported(true);
+		filter.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+		assertThat(streaming.isAsyncStarted()).isTrue();
+
+		MockHttpServletResponse whileStreaming = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/posts"), whileStreaming, new MockFilterChain());
+		assertThat(whileStreaming.getStatus()).isEqualTo(503);
+
+		streaming.getAsyncContext().complete();
+
+		MockHttpServletResponse afterStreaming = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/posts"), afterStreaming, new MockFilterChain());
+		assertThat(afterStreaming.getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void ignoresNonApiRequests() throws Exception {
+		AdmissionControlFilter filter = new AdmissionControlFilter(0, Duration.ZERO, new SimpleMeterRegistry());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+
+		assertThat(response.getStatus()).isEqualTo(200);
+	}
+}
@@ -0,0 +1,78 @@
+package com.clueper.blogapp.metrics;
+
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.repository.PostRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "blogapp.metrics.query-count-threshold=0")
+@AutoConfigureMockMvc
+class RequestMetricsInterceptorTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@AfterEach
+	void tearDown() {
+		postRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void recordsStatementsAndEntityLoadsPerEndpoint() throws Exception {
+		Post post = new Post();
+		post.setTitle("metrics");
+		post.setDescription("description");
+		post.setContent("content");
+		Long id = postRepository.save(post).getId();
+
+		mockMvc.perform(get("/api/posts/{id}", id)).andExpect(status().isOk());
+
+		DistributionSummary statements = meterRegistry.get("blogapp.request.sql.statements")
+				.tags("method", "GET", "uri", "/api/posts/{id}").summary();
+		DistributionSummary entities = meterRegistry.get("blogapp.request.entities.loaded")
+				.tags("method", "GET", "uri", "/api/posts/{id}").summary();
+		assertThat(statements.count()).isEqualTo(1);
+		assertThat(statements.totalAmount()).isPositive();
+		// the post and its content, loaded together
+		assertThat(entities.totalAmount()).isEqualTo(2);
+		assertThat(meterRegistry.get("blogapp.request.sql.threshold.exceeded")
+				.tags("uri", "/api/posts/{id}").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void countsJdbcStatementsOfAsyncHandlers() throws Exception {
+		Post post = new Post();
+		post.setTitle("streamed");
+		post.setDescription("description");
+		post.setContent("content");
+		Long id = postRepository.save(post).getId();
+
+		MvcResult result = mockMvc.perform(get("/api/posts/{id}/content", id)).andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+		// the content is read with plain JDBC before the handler goes async, and recorded by the async dispatch
+		DistributionSummary statements = meterRegistry.get("blogapp.request.sql.statements")
+				.tags("method", "GET", "uri", "/api/posts/{id}/content").summary();
+		assertThat(statements.count()).isEqualTo(1);
+		assertThat(statements.totalAmount()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,59 @@
+package com.clueper.blogapp.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTests {
+
+	@Test
+	void allowsTheBurstThenRefillsAtTheConfiguredRate() {
+		RateLimiter limiter = new RateLimiter(2, 3);
+		long now = 0;
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("client", now)).isZero();
+		}
+		long wait = limiter.tryAcquire("client", now);
+		assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+		assertThat(RateLimiter.retryAfterSeconds(wait)).isEqualTo(1);
+
+		// Other keys have their own bucket
+		assertThat(limiter.tryAcquire("other", now)).isZero();
+
+		assertThat(limiter.tryAcquire("client", now + wait)).isZero();
+		assertThat(limiter.tryAcquire("client", now + wait)).isPositive();
+	}
+
+	@Test
+	void rejectsWith429AndKeepsReadsAndWritesInSeparateBudgets() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		RateLimitInterceptor interceptor = new RateLimitInterceptor(1000, 5, 0.1, 2, registry);
+
+		assertThat(handle(interceptor, "POST", "10.0.0.1").getStatus()).isEqualTo(200);
+		assertThat(handle(interceptor, "POST", "10.0.0.1").getStatus()).isEqualTo(200);
+		MockHttpServletResponse rejected = handle(interceptor, "POST", "10.0.0.1");
+		assertThat(rejected.getStatus()).isEqualTo(429);
+		assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isBetween(9L, 10L);
+		assertThat(registry.counter("blogapp.ratelimit.rejected", "budget", "write").count()).isEqualTo(1);
+
+		// The same client can still read, and another client can still write
+		assertThat(handle(interceptor, "GET", "10.0.0.1").getStatus()).isEqualTo(200);
+		assertThat(handle(interceptor, "POST", "10.0.0.2").getStatus()).isEqualTo(200);
+	}
+
+	private static MockHttpServletResponse handle(RateLimitInterceptor interceptor, String method, String client) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/posts/1/comments");
+		request.setRemoteAddr(client);
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/posts/{postId}/comments");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		interceptor.preHandle(request, response, new Object());
+		return response;
+	}
+}
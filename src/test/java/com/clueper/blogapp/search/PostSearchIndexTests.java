@@ -0,0 +1,60 @@
+package com.clueper.blogapp.search;
+
+import com.clueper.blogapp.payload.PostSearchHit;
+import com.clueper.blogapp.payload.PostSearchResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSearchIndexTests {
+
+	private PostSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PostSearchIndex();
+		index.index(1L, "Spring caching", "Caching in Spring Boot", "Caffeine makes caching fast");
+		index.index(2L, "Java records", "Records for DTOs", "Records are concise, caching aside");
+		index.index(3L, "Hibernate batching", "JDBC batch inserts", "Batch inserts need sequence ids");
+	}
+
+	@Test
+	void ranksTitleMatchesAboveContentMatches() {
+		PostSearchResponse response = index.search("Caching", 0, 10);
+
+		assertThat(response.getTotalHits()).isEqualTo(2);
+		assertThat(response.getContent()).extracting(PostSearchHit::getId).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void pagesThroughRankedHits() {
+		PostSearchResponse secondPage = index.search("caching batch records", 1, 2);
+
+		assertThat(secondPage.getTotalHits()).isEqualTo(3);
+		assertThat(secondPage.getContent()).hasSize(1);
+	}
+
+	@Test
+	void reindexingAndRemovingKeepTheIndexCurrent() {
+		index.index(2L, "Java records", "Records for DTOs", "Nothing about it any more");
+		index.remove(3L);
+
+		assertThat(index.search("caching", 0, 10).getContent()).extracting(PostSearchHit::getId).containsExactly(1L);
+		assertThat(index.search("batch", 0, 10).getTotalHits()).isZero();
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+	@Test
+	void repeatedReindexingReclaimsDocumentNumbers() {
+		for (int i = 0; i < 10_000; i++) {
+			index.index(2L, "Java records", "Records for DTOs", "Version " + i + " of records");
+		}
+
+		assertThat(index.capacityUsed()).isLessThanOrEqualTo(1024 + 2 * index.size());
+		assertThat(index.search("records", 0, 10).getContent()).extracting(PostSearchHit::getId).containsExactly(2L);
+		assertThat(index.search("caching", 0, 10).getContent()).extracting(PostSearchHit::getId).containsExactly(1L);
+		assertThat(index.search("9999", 0, 10).getTotalHits()).isEqualTo(1);
+		assertThat(index.search("batch", 0, 10).getContent()).extracting(PostSearchHit::getId).containsExactly(3L);
+	}
+}
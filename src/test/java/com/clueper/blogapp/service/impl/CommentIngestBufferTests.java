@@ -0,0 +1,159 @@
+package com.clueper.blogapp.service.impl;
+
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.exception.BlogApiException;
+import com.clueper.blogapp.payload.CommentDto;
+import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.service.CommentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+		"blogapp.comment-ingest.enabled=true",
+		"blogapp.comment-ingest.max-batch-size=50",
+		"blogapp.comment-ingest.flush-interval=20ms",
+		"blogapp.comment-ingest.retry-backoff=5s",
+		// A small pool that gives up quickly, so holding its connections makes the writer fail transiently
+		"spring.datasource.hikari.maximum-pool-size=3",
+		"spring.datasource.hikari.connection-timeout=250"
+})
+class CommentIngestBufferTests {
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private CommentIngestBuffer ingestBuffer;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@AfterEach
+	void tearDown() {
+		commentRepository.deleteAllInBatch();
+		postRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void acceptedCommentsAreWrittenInBatchesAndCounted() throws Exception {
+		Post post = new Post();
+		post.setTitle("ingest");
+		post.setDescription("description");
+		post.setContent("content");
+		Long postId = postRepository.save(post).getId();
+
+		for (int i = 0; i < 120; i++) {
+			commentService.acceptComment(new CommentDto(null, "name", "user@example.com", "body " + i, null, null), postId);
+		}
+		commentService.acceptComment(new CommentDto(null, "name", "user@example.com", "orphan", null, null), -1L);
+		assertThatThrownBy(() -> commentService.acceptComment(new CommentDto(null, "name", "user@example.com", " ", null, null), postId))
+				.isInstanceOf(BlogApiException.class);
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (meterRegistry.counter("blogapp.comment.ingest.dropped").count() < 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+
+		assertThat(meterRegistry.counter("blogapp.comment.ingest.written").count()).isEqualTo(120);
+		assertThat(meterRegistry.counter("blogapp.comment.ingest.dropped").count()).isEqualTo(1);
+		assertThat(postRepository.findById(postId).orElseThrow().getCommentCount()).isEqualTo(120);
+		// 120 comments cannot fit in fewer than three batches of 50
+		assertThat(meterRegistry.timer("blogapp.comment.ingest.flush").count()).isGreaterThanOrEqualTo(3);
+	}
+
+	@Test
+	void aCommentThatCannotBeStoredDoesNotTakeItsBatchDown() throws Exception {
+		Long postId = postRepository.save(post("isolation")).getId();
+		Long otherPostId = postRepository.save(post("isolation other")).getId();
+		double written = meterRegistry.counter("blogapp.comment.ingest.written").count();
+		double failed = meterRegistry.counter("blogapp.comment.ingest.failed").count();
+
+		for (int i = 0; i < 20; i++) {
+			ingestBuffer.offer(i % 2 == 0 ? postId : otherPostId, new CommentDto(null, "name", "user@example.com", "body " + i, null, null));
+		}
+		// longer than the column; acceptComment would have rejected it, the buffer only finds out on INSERT
+		ingestBuffer.offer(postId, new CommentDto(null, "n".repeat(300), "user@example.com", "too long", null, null));
+		for (int i = 20; i < 40; i++) {
+			ingestBuffer.offer(i % 2 == 0 ? postId : otherPostId, new CommentDto(null, "name", "user@example.com", "body " + i, null, null));
+		}
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (meterRegistry.counter("blogapp.comment.ingest.written").count() - written < 40
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+
+		assertThat(meterRegistry.counter("blogapp.comment.ingest.written").count() - written).isEqualTo(40);
+		assertThat(meterRegistry.counter("blogapp.comment.ingest.failed").count() - failed).isEqualTo(1);
+		assertThat(commentRepository.findByPostId(postId)).hasSize(20);
+		assertThat(postRepository.findById(postId).orElseThrow().getCommentCount()).isEqualTo(20);
+		assertThat(postRepository.findById(otherPostId).orElseThrow().getCommentCount()).isEqualTo(20);
+	}
+
+	@Test
+	void aBatchWaitingToBeRetriedDoesNotHoldUpNewerComments() throws Exception {
+		Long retriedPostId = postRepository.save(post("retried")).getId();
+		Long otherPostId = postRepository.save(post("not retried")).getId();
+		double written = meterRegistry.counter("blogapp.comment.ingest.written").count();
+
+		// Hold every pooled connection until the write of the first comment has timed out waiting for one
+		List<Connection> held = new ArrayList<>();
+		try {
+			for (int i = 0; i < 3; i++) {
+				held.add(dataSource.getConnection());
+			}
+			ingestBuffer.offer(retriedPostId, new CommentDto(null, "name", "user@example.com", "retried", null, null));
+			Thread.sleep(1_000);
+		} finally {
+			for (Connection connection : held) {
+				connection.close();
+			}
+		}
+
+		// The retry is seconds away, but a comment on another post is written right away
+		ingestBuffer.offer(otherPostId, new CommentDto(null, "name", "user@example.com", "next", null, null));
+		long deadline = System.currentTimeMillis() + 2_000;
+		while (commentRepository.findByPostId(otherPostId).isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(commentRepository.findByPostId(otherPostId)).hasSize(1);
+		assertThat(commentRepository.findByPostId(retriedPostId)).isEmpty();
+
+		// And the retried comment is written once its backoff has passed
+		deadline = System.currentTimeMillis() + 15_000;
+		while (meterRegistry.counter("blogapp.comment.ingest.written").count() - written < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertThat(commentRepository.findByPostId(retriedPostId)).hasSize(1);
+		assertThat(postRepository.findById(retriedPostId).orElseThrow().getCommentCount()).isEqualTo(1);
+	}
+
+	private static Post post(String title) {
+		Post post = new Post();
+		post.setTitle(title);
+		post.setDescription("description");
+		post.setContent("content");
+		return post;
+	}
+}
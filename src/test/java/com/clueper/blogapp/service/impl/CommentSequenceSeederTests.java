@@ -0,0 +1,52 @@
+package com.clueper.blogapp.service.impl;
+
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.PostRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CommentSequenceSeederTests {
+
+	@Autowired
+	private CommentSequenceSeeder seeder;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void tearDown() {
+		commentRepository.deleteAllInBatch();
+		postRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void sequenceIsMovedPastCommentsInsertedWithoutIt() {
+		Post post = new Post();
+		post.setTitle("sequence");
+		post.setDescription("description");
+		post.setContent("content");
+		Long postId = postRepository.save(post).getId();
+		// as left behind by AUTO_INCREMENT ids
+		jdbcTemplate.update("insert into comments (id, name, email, body, version, post_id) values (1000007, 'n', 'e', 'b', 0, ?)", postId);
+
+		assertThat(seeder.seed()).isEqualTo(1000100);
+		assertThat(seeder.seed()).isEqualTo(-1);
+
+		// the pooled optimizer hands out the 50 ids up to the value it reads
+		long next = jdbcTemplate.queryForObject("select next value for comments_seq", Long.class);
+		assertThat(next - 49).isGreaterThan(1000007);
+	}
+}
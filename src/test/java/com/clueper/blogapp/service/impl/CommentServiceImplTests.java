@@ -0,0 +1,240 @@
+package com.clueper.blogapp.service.impl;
+
+import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.exception.BlogApiException;
+import com.clueper.blogapp.exception.ResourceNotFoundException;
+import com.clueper.blogapp.payload.CommentBatchResponse;
+import com.clueper.blogapp.payload.CommentBatchResult;
+import com.clueper.blogapp.payload.CommentCursorResponse;
+import com.clueper.blogapp.payload.CommentDto;
+import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.service.CommentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class CommentServiceImplTests {
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private CommentCountReconciler commentCountReconciler;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private Long postId;
+	private Long otherPostId;
+	private Long commentId;
+
+	@BeforeEach
+	void setUp() {
+		postId = savePost("first").getId();
+		otherPostId = savePost("second").getId();
+		commentId = saveComment(postRepository.getReferenceById(postId)).getId();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@AfterEach
+	void tearDown() {
+		commentRepository.deleteAllInBatch();
+		postRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void commentOperationsLookUpPostAndCommentInOneStatement() {
+		statistics.clear();
+		CommentDto comment = commentService.getCommentById(postId, commentId);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		// only the comment is materialized; the title comes from the same row, not from loading the post
+		assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+		assertThat(comment.getPostTitle()).isEqualTo("first");
+
+		statistics.clear();
+		commentService.updateComment(new CommentDto(null, "edited", "edited@example.com", "edited", null, null), postId, commentId);
+		// lookup, the UPDATE itself and the post version bump
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+
+		statistics.clear();
+		commentService.deleteComment(postId, commentId);
+		// the DELETE and the post version bump
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void updateWithStaleCommentVersionIsConflict() {
+		Long version = commentService.getCommentById(postId, commentId).getVersion();
+
+		CommentDto updated = commentService.updateComment(
+				new CommentDto(null, "edited", "edited@example.com", "edited", version, null), postId, commentId);
+		assertThat(updated.getVersion()).isEqualTo(version + 1);
+
+		assertThatThrownBy(() -> commentService.updateComment(
+				new CommentDto(null, "lost", "lost@example.com", "lost", version, null), postId, commentId))
+				.isInstanceOfSatisfying(BlogApiException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.CONFLICT));
+		assertThat(commentService.getCommentById(postId, commentId).getBody()).isEqualTo("edited");
+	}
+
+	@Test
+	void createCommentReadsOnlyThePostTitle() {
+		statistics.clear();
+		CommentDto created = commentService.createComment(new CommentDto(null, "name", "user@example.com", "body", null, null), postId);
+
+		// three statements: the comment count UPDATE, the title SELECT and the INSERT, plus a sequence call
+		// whenever the pooled id block runs out
+		assertThat(statistics.getPrepareStatementCount()).isBetween(3L, 4L);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(created.getPostTitle()).isEqualTo("first");
+	}
+
+	@Test
+	void createCommentsBatchesInsertsAndReportsEachItem() {
+		List<CommentDto> batch = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			batch.add(new CommentDto(null, "name " + i, "user" + i + "@example.com", "body " + i, null, null));
+		}
+		batch.add(new CommentDto(null, "name", "user@example.com", " ", null, null));
+		batch.add(new CommentDto(null, "name", "user@example.com", "x".repeat(256), null, null));
+
+		statistics.clear();
+		CommentBatchResponse response = commentService.createComments(batch, postId);
+
+		assertThat(response.getCreated()).isEqualTo(120);
+		assertThat(response.getRejected()).isEqualTo(2);
+		assertThat(response.getResults()).hasSize(122);
+		assertThat(response.getResults().subList(0, 120)).allSatisfy(result -> assertThat(result.getId()).isNotNull());
+		assertThat(response.getResults().get(121).getStatus()).isEqualTo(CommentBatchResult.Status.REJECTED);
+		assertThat(commentRepository.findByPostId(postId)).hasSize(121);
+		// 120 rows go out as three JDBC batches rather than 120 single INSERTs
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+	}
+
+	@Test
+	void getCommentsByPostIdWalksEveryCommentOnceInTwoStatementsPerPage() {
+		for (int i = 0; i < 44; i++) {
+			saveComment(postRepository.getReferenceById(postId));
+		}
+		saveComment(postRepository.getReferenceById(otherPostId));
+
+		List<Long> ids = new ArrayList<>();
+		String cursor = "";
+		int pages = 0;
+		do {
+			statistics.clear();
+			CommentCursorResponse page = commentService.getCommentsByPostId(postId, cursor, 20);
+			assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+			page.getContent().forEach(comment -> ids.add(comment.getId()));
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(ids).hasSize(45).doesNotHaveDuplicates().isSorted();
+		assertThatThrownBy(() -> commentService.getCommentsByPostId(postId, "not-a-cursor", 20))
+				.isInstanceOf(BlogApiException.class);
+	}
+
+	@Test
+	void commentChangesBumpThePostVersion() {
+		long version = commentService.getCommentsVersion(postId);
+
+		commentService.createComment(new CommentDto(null, "name", "user@example.com", "body", null, null), postId);
+		assertThat(commentService.getCommentsVersion(postId)).isEqualTo(version + 1);
+
+		commentService.updateComment(new CommentDto(null, "edited", "edited@example.com", "edited", null, null), postId, commentId);
+		assertThat(commentService.getCommentsVersion(postId)).isEqualTo(version + 2);
+
+		commentService.deleteComment(postId, commentId);
+		assertThat(commentService.getCommentsVersion(postId)).isEqualTo(version + 3);
+		assertThat(commentService.getCommentsVersion(otherPostId)).isZero();
+	}
+
+	@Test
+	void commentCountIsMaintainedUnderConcurrentWrites() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<CommentDto>> futures = new ArrayList<>();
+		for (int i = 0; i < 80; i++) {
+			futures.add(executor.submit(() -> commentService.createComment(
+					new CommentDto(null, "name", "user@example.com", "body", null, null), otherPostId)));
+		}
+		for (Future<CommentDto> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		assertThat(postRepository.findById(otherPostId).orElseThrow().getCommentCount()).isEqualTo(80);
+
+		commentService.createComments(List.of(new CommentDto(null, "name", "user@example.com", "body", null, null)), otherPostId);
+		commentService.deleteComment(otherPostId, futures.get(0).get().getId());
+		assertThat(postRepository.findById(otherPostId).orElseThrow().getCommentCount()).isEqualTo(80);
+	}
+
+	@Test
+	void reconcilerRepairsOnlyDriftedCounts() {
+		// setUp saved a comment through the repository, bypassing the counter
+		assertThat(postRepository.findById(postId).orElseThrow().getCommentCount()).isZero();
+
+		assertThat(commentCountReconciler.reconcile()).isEqualTo(1);
+		assertThat(postRepository.findById(postId).orElseThrow().getCommentCount()).isEqualTo(1);
+		assertThat(commentCountReconciler.reconcile()).isZero();
+	}
+
+	@Test
+	void missingPostOrCommentIsNotFoundAndForeignCommentIsBadRequest() {
+		assertThatThrownBy(() -> commentService.getCommentById(-1L, commentId))
+				.isInstanceOf(ResourceNotFoundException.class)
+				.hasMessageContaining("Post");
+		assertThatThrownBy(() -> commentService.deleteComment(postId, -1L))
+				.isInstanceOf(ResourceNotFoundException.class)
+				.hasMessageContaining("Comment");
+		assertThatThrownBy(() -> commentService.updateComment(new CommentDto(), otherPostId, commentId))
+				.isInstanceOf(BlogApiException.class);
+		assertThatThrownBy(() -> commentService.createComment(new CommentDto(), -1L))
+				.isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	private Post savePost(String title) {
+		Post post = new Post();
+		post.setTitle(title);
+		post.setDescription("description");
+		post.setContent("content");
+		return postRepository.save(post);
+	}
+
+	private Comment saveComment(Post post) {
+		Comment comment = new Comment();
+		comment.setName("name");
+		comment.setEmail("user@example.com");
+		comment.setBody("body");
+		comment.setPost(post);
+		return commentRepository.save(comment);
+	}
+}
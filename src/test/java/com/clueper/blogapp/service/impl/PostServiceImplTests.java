@@ -0,0 +1,510 @@
+package com.clueper.blogapp.service.impl;
+
+import com.clueper.blogapp.entity.Comment;
+import com.clueper.blogapp.entity.Post;
+import com.clueper.blogapp.exception.BlogApiException;
+import com.clueper.blogapp.exception.ResourceNotFoundException;
+import com.clueper.blogapp.mapper.PostMapper;
+import com.clueper.blogapp.payload.CommentDto;
+import com.clueper.blogapp.payload.PostBatchResponse;
+import com.clueper.blogapp.payload.PostCursorResponse;
+import com.clueper.blogapp.payload.PostDto;
+import com.clueper.blogapp.payload.PostResponse;
+import com.clueper.blogapp.payload.PostSummary;
+import com.clueper.blogapp.payload.PostSummaryResponse;
+import com.clueper.blogapp.payload.TrendingPost;
+import com.clueper.blogapp.repository.CommentRepository;
+import com.clueper.blogapp.repository.PostContentRepository;
+import com.clueper.blogapp.repository.PostRepository;
+import com.clueper.blogapp.search.PostSearchIndex;
+import com.clueper.blogapp.service.CommentService;
+import com.clueper.blogapp.service.PostService;
+import com.clueper.blogapp.utils.AppConstants;
+import com.clueper.blogapp.utils.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+class PostServiceImplTests {
+
+	private static final int POSTS = 60;
+	private static final int COMMENTS_PER_POST = 5;
+
+	@Autowired
+	private PostService postService;
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private PostContentRepository postContentRepository;
+
+	@Autowired
+	private PostPurger postPurger;
+
+	@Autowired
+	private PostViewCounter postViewCounter;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private PostSearchIndex searchIndex;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockitoSpyBean
+	private PostMapper postMapper;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < POSTS; i++) {
+			Post post = new Post();
+			post.setTitle("title " + i);
+			post.setDescription("description " + i);
+			post.setContent("content " + i);
+			post.setCommentCount(COMMENTS_PER_POST);
+			post = postRepository.save(post);
+
+			for (int j = 0; j < COMMENTS_PER_POST; j++) {
+				Comment comment = new Comment();
+				comment.setName("name " + j);
+				comment.setEmail("user" + j + "@example.com");
+				comment.setBody("body " + j);
+				comment.setPost(post);
+				commentRepository.save(comment);
+			}
+		}
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@AfterEach
+	void tearDown() {
+		commentRepository.deleteAllInBatch();
+		postRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void getAllPostsLoadsCommentPreviewsWithoutPerPostQueries() {
+		long smallPage = countStatements(() -> postService.getAllPosts(0, 5, "id", "asc"));
+		long largePage = countStatements(() -> postService.getAllPosts(0, 50, "id", "asc"));
+
+		// id page, count, posts and comment previews
+		assertThat(smallPage).isEqualTo(4);
+		assertThat(largePage).isEqualTo(smallPage);
+	}
+
+	@Test
+	void getAllPostsKeepsSortOrderAndBoundsComments() {
+		PostResponse response = postService.getAllPosts(1, 10, "title", "desc");
+
+		assertThat(response.getContent()).hasSize(10);
+		assertThat(response.getTotalElements()).isEqualTo(POSTS);
+		assertThat(response.getContent())
+				.extracting(PostDto::getTitle)
+				.isSortedAccordingTo(Comparator.reverseOrder());
+		assertThat(response.getContent())
+				.allSatisfy(post -> {
+					assertThat(post.getCommentCount()).isEqualTo(COMMENTS_PER_POST);
+					assertThat(post.getComments()).hasSize(AppConstants.COMMENT_PREVIEW_SIZE)
+							.extracting(CommentDto::getId).isSorted();
+				});
+	}
+
+	@Test
+	void getPostSummariesSkipsContentAndComments() {
+		statistics.clear();
+		PostSummaryResponse response = postService.getPostSummaries(0, 10, "title", "desc");
+
+		// summary page and count, no entities
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(response.getTotalElements()).isEqualTo(POSTS);
+		assertThat(response.getContent()).hasSize(10)
+				.extracting(PostSummary::getTitle).isSortedAccordingTo(Comparator.reverseOrder());
+		assertThat(response.getContent()).allSatisfy(summary -> assertThat(summary.getCommentCount()).isEqualTo(COMMENTS_PER_POST));
+	}
+
+	@Test
+	void getAllPostsAfterWalksEveryPostOnceWithoutCounting() {
+		List<String> titles = new ArrayList<>();
+		String cursor = "";
+		long statements = 0;
+		do {
+			statistics.clear();
+			PostCursorResponse page = postService.getAllPostsAfter(cursor, 7, "title", "desc");
+			statements = statistics.getPrepareStatementCount();
+
+			page.getContent().forEach(post -> titles.add(post.getTitle()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(titles).hasSize(POSTS).doesNotHaveDuplicates().isSortedAccordingTo(Comparator.reverseOrder());
+		// window query and comment previews, no count of posts
+		assertThat(statements).isEqualTo(2);
+	}
+
+	@Test
+	void mostCommentedPostsSortByTheStoredCount() {
+		Long id = postRepository.findAll().get(0).getId();
+		commentService.createComment(new CommentDto(null, "name", "user@example.com", "new comment", null, null), id);
+
+		PostResponse page = postService.getAllPosts(0, 5, "commentCount", "desc");
+		assertThat(page.getContent().get(0).getId()).isEqualTo(id);
+		assertThat(page.getContent().get(0).getCommentCount()).isEqualTo(COMMENTS_PER_POST + 1);
+
+		PostCursorResponse cursorPage = postService.getAllPostsAfter("", 5, "commentCount", "desc");
+		assertThat(cursorPage.getContent().get(0).getId()).isEqualTo(id);
+		assertThat(postService.getAllPostsAfter(cursorPage.getNextCursor(), 5, "commentCount", "desc").getContent())
+				.extracting(PostDto::getId).doesNotContain(id);
+	}
+
+	@Test
+	void getAllPostsAfterRejectsCursorForAnotherSort() {
+		String cursor = postService.getAllPostsAfter("", 5, "title", "asc").getNextCursor();
+
+		assertThatThrownBy(() -> postService.getAllPostsAfter(cursor, 5, "description", "asc"))
+				.isInstanceOf(BlogApiException.class);
+	}
+
+	@Test
+	void getAllPostsAfterRejectsCursorValuesOfTheWrongTypeAndEmptyPages() {
+		// the right keys, but a title cursor carrying a number and a count cursor carrying text
+		String numericTitle = KeysetCursor.encode(Map.of("title", 42L, "id", 1L));
+		String textualCount = KeysetCursor.encode(Map.of("commentCount", "many", "id", 1L));
+
+		assertThatThrownBy(() -> postService.getAllPostsAfter(numericTitle, 5, "title", "asc"))
+				.isInstanceOfSatisfying(BlogApiException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+		assertThatThrownBy(() -> postService.getAllPostsAfter(textualCount, 5, "commentCount", "desc"))
+				.isInstanceOfSatisfying(BlogApiException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+		assertThatThrownBy(() -> postService.getAllPostsAfter("", 0, "id", "asc"))
+				.isInstanceOfSatisfying(BlogApiException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+	}
+
+	@Test
+	void sortingByContentOrAnUnknownPropertyIsRejected() {
+		assertThatThrownBy(() -> postService.getAllPosts(0, 5, "content", "asc"))
+				.isInstanceOfSatisfying(BlogApiException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+		assertThatThrownBy(() -> postService.getPostSummaries(0, 5, "content", "asc")).isInstanceOf(BlogApiException.class);
+		assertThatThrownBy(() -> postService.getAllPostsAfter("", 5, "nope", "asc")).isInstanceOf(BlogApiException.class);
+		assertThat(postService.getAllPosts(0, 5, "viewCount", "desc").getContent()).isNotEmpty();
+	}
+
+	@Test
+	void searchPostsRejectsNegativePagesAndEmptyPageSizes() {
+		assertThatThrownBy(() -> postService.searchPosts("title", -1, 10)).isInstanceOf(BlogApiException.class);
+		assertThatThrownBy(() -> postService.searchPosts("title", 0, 0)).isInstanceOf(BlogApiException.class);
+	}
+
+	@Test
+	void getPostByIdIsCachedUntilACommentChanges() {
+		Long id = postRepository.findAll().get(0).getId();
+		postService.getPostById(id);
+
+		assertThat(countStatements(() -> postService.getPostById(id))).isZero();
+
+		commentService.createComment(new CommentDto(null, "name", "user@example.com", "new comment", null, null), id);
+
+		PostDto post = postService.getPostById(id);
+		assertThat(post.getCommentCount()).isEqualTo(COMMENTS_PER_POST + 1);
+		assertThat(post.getComments()).hasSize(AppConstants.COMMENT_PREVIEW_SIZE);
+	}
+
+	@Test
+	void aPostUpdatedAfterItWasReadIsNotLeftInTheCache() throws Exception {
+		Long id = postRepository.findAll().get(0).getId();
+		ExecutorService writer = Executors.newSingleThreadExecutor();
+		AtomicBoolean updated = new AtomicBoolean();
+		// The update commits, and evicts the key, after the post was read but before it is put in the cache
+		doAnswer(invocation -> {
+			Object post = invocation.callRealMethod();
+			if (updated.compareAndSet(false, true)) {
+				writer.submit(() -> postService.updatePost(id, new PostDto(null, "updated", "description", "content", null, 0, null))).get();
+			}
+			return post;
+		}).when(postMapper).toDto(any(Post.class), anyCollection());
+
+		try {
+			assertThat(postService.getPostById(id).getTitle()).isNotEqualTo("updated");
+		} finally {
+			writer.shutdown();
+		}
+
+		assertThat(postService.getPostById(id).getTitle()).isEqualTo("updated");
+	}
+
+	@Test
+	void getPostsByIdsKeepsOrderReportsMissingIdsAndUsesTheCache() {
+		List<Long> ids = new ArrayList<>(postRepository.findAll().stream().map(Post::getId).toList().subList(0, 50));
+		Collections.reverse(ids);
+		postService.getPostById(ids.get(10));
+		ids.add(5, Long.MAX_VALUE);
+
+		statistics.clear();
+		PostBatchResponse response = postService.getPostsByIds(ids);
+
+		// one query for the uncached posts, one for their comment previews and one for the versions of the posts
+		// it caches, however many are requested
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(response.getMissingIds()).containsExactly(Long.MAX_VALUE);
+		assertThat(response.getContent()).extracting(PostDto::getId)
+				.containsExactlyElementsOf(ids.stream().filter(id -> id != Long.MAX_VALUE).toList());
+		assertThat(response.getContent()).allSatisfy(post -> assertThat(post.getComments()).hasSize(AppConstants.COMMENT_PREVIEW_SIZE));
+
+		// the loaded posts are now cached as well; only the unknown id is looked up again
+		assertThat(countStatements(() -> postService.getPostsByIds(ids))).isEqualTo(1);
+	}
+
+	@Test
+	void viewsAreWrittenInOneBatchAndRankTrendingPosts() throws Exception {
+		List<Long> ids = postRepository.findAll().stream().map(Post::getId).toList();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> viewers = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			viewers.add(executor.submit(() -> {
+				for (int i = 0; i < 250; i++) {
+					postService.recordView(ids.get(0));
+					if (i % 2 == 0) {
+						postService.recordView(ids.get(1));
+					}
+				}
+			}));
+		}
+		for (Future<?> viewer : viewers) {
+			viewer.get();
+		}
+		executor.shutdown();
+		postService.recordView(ids.get(2));
+
+		statistics.clear();
+		postViewCounter.flush();
+		// one JDBC batch, not an UPDATE per view
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+
+		assertThat(postRepository.findById(ids.get(0)).orElseThrow().getViewCount()).isEqualTo(1000);
+		assertThat(postRepository.findById(ids.get(1)).orElseThrow().getViewCount()).isEqualTo(500);
+
+		List<TrendingPost> trending = postService.getTrendingPosts(2);
+		assertThat(trending).extracting(TrendingPost::getId).containsExactly(ids.get(0), ids.get(1));
+		assertThat(trending.get(0).getScore()).isGreaterThan(trending.get(1).getScore());
+	}
+
+	@Test
+	void contentIsStoredCompressedAndReadBackWholeOrStreamed() throws IOException {
+		String content = "A paragraph of a very long article. ".repeat(10_000);
+		PostDto created = postService.createPost(new PostDto(null, "large", "description", content, null, 0, null));
+
+		byte[] stored = postContentRepository.findCompressedByPostId(created.getId()).orElseThrow();
+		assertThat(stored.length).isLessThan(content.length() / 10);
+		try (InputStream streamed = postService.openPostContent(created.getId())) {
+			assertThat(new String(streamed.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(content);
+		}
+		assertThat(postService.getPostById(created.getId()).getContent()).isEqualTo(content);
+
+		// the content lives in another table, but changing only it still bumps the post version
+		PostDto updated = postService.updatePost(created.getId(),
+				new PostDto(null, "large", "description", "short now", null, 0, null));
+		assertThat(updated.getVersion()).isGreaterThan(created.getVersion());
+		assertThat(postService.getPostById(created.getId()).getContent()).isEqualTo("short now");
+	}
+
+	@Test
+	void trendingScoresAreKeptForABoundedNumberOfPosts() {
+		PostViewCounter counter = new PostViewCounter(jdbcTemplate, Duration.ofHours(1), 3);
+		// a crawler viewing 1000 posts once, and a few posts viewed more often
+		for (long id = 1; id <= 1000; id++) {
+			counter.record(id);
+		}
+		for (long id = 1; id <= 3; id++) {
+			for (int i = 0; i < 10; i++) {
+				counter.record(id);
+			}
+		}
+		counter.flush();
+
+		assertThat(counter.candidateCount()).isEqualTo(30);
+		assertThat(counter.getTrending()).extracting(PostViewCounter.TrendingEntry::postId).containsExactlyInAnyOrder(1L, 2L, 3L);
+	}
+
+	@Test
+	void savingAPostKeepsViewsFlushedSinceItWasLoaded() {
+		Long id = postRepository.findAll().get(0).getId();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Post post = postRepository.findById(id).orElseThrow();
+			for (int i = 0; i < 7; i++) {
+				postService.recordView(id);
+			}
+			postViewCounter.flush();
+			post.setDescription("edited while views were flushed");
+		});
+
+		assertThat(postRepository.findById(id).orElseThrow().getViewCount()).isEqualTo(7);
+	}
+
+	@Test
+	void exportPostsStreamsEveryPostWithItsComments() {
+		List<PostDto> exported = new ArrayList<>();
+
+		long statements = countStatements(() -> postService.exportPosts(exported::add));
+
+		assertThat(exported).hasSize(POSTS);
+		assertThat(exported).extracting(PostDto::getId).isSorted();
+		assertThat(exported).allSatisfy(post -> assertThat(post.getComments())
+				.hasSize(COMMENTS_PER_POST)
+				.allSatisfy(comment -> assertThat(comment.getPostTitle()).isEqualTo(post.getTitle())));
+		// one posts stream and one comments stream
+		assertThat(statements).isEqualTo(2);
+	}
+
+	@Test
+	void exportPostsClearsThePersistenceContextByEntitiesRead() {
+		// One post with far more comments than the clear interval, followed by the others
+		Post busy = postRepository.findAll().stream().min(Comparator.comparing(Post::getId)).orElseThrow();
+		List<Comment> comments = new ArrayList<>();
+		for (int i = 0; i < 600; i++) {
+			Comment comment = new Comment();
+			comment.setName("name");
+			comment.setEmail("user@example.com");
+			comment.setBody("body " + i);
+			comment.setPost(busy);
+			comments.add(comment);
+		}
+		commentRepository.saveAll(comments);
+
+		List<Integer> managedEntities = new ArrayList<>();
+		postService.exportPosts(post -> managedEntities.add(entityManager.unwrap(Session.class).getStatistics().getEntityCount()));
+
+		assertThat(managedEntities).hasSize(POSTS);
+		// Counting posts alone never clears here, leaving every post, content and comment managed by the end
+		assertThat(managedEntities.get(POSTS - 1)).isLessThan(500);
+	}
+
+	@Test
+	void deletePostUsesSetBasedStatementsWithoutLoadingComments() {
+		Long id = postRepository.findAll().get(0).getId();
+
+		statistics.clear();
+		postService.deletePost(id);
+
+		// one DELETE each for the comments, the post and its content, plus reading the content id,
+		// however many comments it had
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(postRepository.existsById(id)).isFalse();
+		assertThat(commentRepository.findByPostId(id)).isEmpty();
+		assertThatThrownBy(() -> postService.deletePost(id)).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void purgeDeletesPostsAndCommentsAndSkipsUnknownIds() {
+		List<Long> ids = new ArrayList<>(postRepository.findAll().stream().map(Post::getId).toList().subList(0, POSTS / 2));
+		Long kept = postRepository.findAll().stream().map(Post::getId).filter(id -> !ids.contains(id)).findFirst().orElseThrow();
+		postService.getPostById(ids.get(0));
+		ids.add(Long.MAX_VALUE);
+
+		long contents = postContentRepository.count();
+
+		assertThat(postPurger.purge(ids)).isEqualTo(POSTS / 2);
+
+		assertThat(postRepository.count()).isEqualTo(POSTS - POSTS / 2);
+		assertThat(postContentRepository.count()).isEqualTo(contents - POSTS / 2);
+		assertThat(commentRepository.count()).isEqualTo((long) (POSTS - POSTS / 2) * COMMENTS_PER_POST);
+		assertThat(commentRepository.findByPostId(kept)).hasSize(COMMENTS_PER_POST);
+		// the cached DTO went with the post
+		assertThatThrownBy(() -> postService.getPostById(ids.get(0))).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void purgesBeyondTheQueueCapacityAreRefusedWith503() throws Exception {
+		// a purger whose first purge blocks on its comment lookup until released, with room for one more
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CommentRepository blockingComments = mock(CommentRepository.class);
+		doAnswer(invocation -> {
+			running.countDown();
+			release.await();
+			return List.of();
+		}).when(blockingComments).findIdsByPostIdIn(anyCollection(), any(Limit.class));
+		PostPurger purger = new PostPurger(postRepository, blockingComments, postContentRepository, transactionTemplate,
+				cacheManager, searchIndex, 1);
+		try {
+			CompletableFuture<Integer> first = purger.purgeAsync(List.of(Long.MAX_VALUE));
+			assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+			CompletableFuture<Integer> queued = purger.purgeAsync(List.of(Long.MAX_VALUE));
+
+			assertThatThrownBy(() -> purger.purgeAsync(List.of(Long.MAX_VALUE)))
+					.isInstanceOfSatisfying(BlogApiException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+			release.countDown();
+			assertThat(first.get(5, TimeUnit.SECONDS)).isZero();
+			assertThat(queued.get(5, TimeUnit.SECONDS)).isZero();
+		} finally {
+			release.countDown();
+			purger.shutdown();
+		}
+	}
+
+	private long countStatements(Runnable call) {
+		statistics.clear();
+		call.run();
+		return statistics.getPrepareStatementCount();
+	}
+}